@@ -7,10 +7,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import java.io.*;
 
-import static org.apache.commons.io.IOUtils.copy;
-
+/**
+ * Caches the request body, so that it can be read both for HMAC verification and by the request handler. Every
+ * returned stream reads the same cached body without copying it.
+ */
 class ContentCachingRequestWrapper extends HttpServletRequestWrapper {
-    private ByteArrayOutputStream cachedBytes;
+    private byte[] cachedBytes;
 
     ContentCachingRequestWrapper(ServletRequest request) {
         super((HttpServletRequest) request);
@@ -23,21 +25,31 @@ class ContentCachingRequestWrapper extends HttpServletRequestWrapper {
         }
 
         return new ServletInputStream() {
-            private final ByteArrayInputStream input = new ByteArrayInputStream(cachedBytes.toByteArray());
+            private final ByteArrayInputStream input = new ByteArrayInputStream(cachedBytes);
 
             @Override
             public int read() {
                 return input.read();
             }
 
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return input.read(b, off, len);
+            }
+
+            @Override
+            public int available() {
+                return input.available();
+            }
+
             @Override
             public boolean isFinished() {
-                return false;
+                return input.available() == 0;
             }
 
             @Override
             public boolean isReady() {
-                return false;
+                return true;
             }
 
             @Override
@@ -53,7 +65,6 @@ class ContentCachingRequestWrapper extends HttpServletRequestWrapper {
     }
 
     private void cacheInputStream() throws IOException {
-        cachedBytes = new ByteArrayOutputStream();
-        copy(super.getInputStream(), cachedBytes);
+        cachedBytes = super.getInputStream().readAllBytes();
     }
 }
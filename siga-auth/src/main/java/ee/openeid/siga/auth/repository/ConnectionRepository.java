@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,4 +21,9 @@ public interface ConnectionRepository extends JpaRepository<SigaConnection, Inte
     @Transactional
     @Query("delete from SigaConnection c where c.containerId=:container_id and c.service.id=:service_id")
     int deleteByContainerIdAndServiceId(@Param("container_id") String containerId, @Param("service_id") int serviceId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from SigaConnection c where c.service.id=:service_id and c.containerId in :container_ids")
+    int deleteByServiceIdAndContainerIdIn(@Param("service_id") int serviceId, @Param("container_ids") Collection<String> containerIds);
 }
@@ -38,6 +38,8 @@ public enum SigaEventName {
     GET_TIMESTAMPS_LIST,
     GET_SIGNATURE,
     AUGMENT_SIGNATURES,
+    AUGMENTATION_CONTAINER_PARSING,
+    AUGMENTATION_CONTAINER_VALIDATION,
     ADD_DATAFILE,
     GET_DATAFILES_LIST,
     DELETE_DATAFILE,
@@ -75,6 +77,7 @@ public enum SigaEventName {
         PHONE_NR,
         RELYING_PARTY_NAME,
         SIGNATURE_PROFILE,
-        NO_OF_DATAFILES
+        NO_OF_DATAFILES,
+        VALIDATION_CONFIGURATION
     }
 }
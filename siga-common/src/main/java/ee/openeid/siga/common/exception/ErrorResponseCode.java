@@ -16,6 +16,7 @@ public enum ErrorResponseCode {
     REQUEST_SIZE_LIMIT_EXCEPTION,
     REQUEST_VALIDATION_EXCEPTION,
     RESOURCE_NOT_FOUND_EXCEPTION,
+    SESSION_SIZE_LIMIT_EXCEPTION,
     SIGNATURE_CREATION_EXCEPTION,
     SIGNATURE_EXISTS_EXCEPTION,
     SMARTID_EXCEPTION
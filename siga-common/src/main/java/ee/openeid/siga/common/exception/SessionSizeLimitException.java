@@ -0,0 +1,10 @@
+package ee.openeid.siga.common.exception;
+
+import static ee.openeid.siga.common.exception.ErrorResponseCode.SESSION_SIZE_LIMIT_EXCEPTION;
+
+public class SessionSizeLimitException extends SigaApiException {
+
+    public SessionSizeLimitException(String message) {
+        super(SESSION_SIZE_LIMIT_EXCEPTION, message);
+    }
+}
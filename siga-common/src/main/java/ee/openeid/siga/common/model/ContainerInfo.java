@@ -5,5 +5,5 @@ import lombok.Data;
 @Data
 public class ContainerInfo {
     private String containerName;
-    private String container;
+    private byte[] container;
 }
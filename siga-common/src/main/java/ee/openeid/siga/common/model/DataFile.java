@@ -1,9 +0,0 @@
-package ee.openeid.siga.common.model;
-
-import lombok.Data;
-
-@Data
-public class DataFile {
-    private String fileName;
-    private String content;
-}
@@ -1,13 +1,27 @@
 package ee.openeid.siga.common.model;
 
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
-public class HashcodeSignatureWrapper {
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class HashcodeSignatureWrapper implements Serializable {
     private String generatedSignatureId;
     private byte[] signature;
+    private boolean signatureCompressed;
+    @Builder.Default
     private List<SignatureHashcodeDataFile> dataFiles = new ArrayList<>();
+    /**
+     * Metadata of the signature, collected when the signature is added to the session, or {@code null} if the
+     * signature could not be parsed at that time.
+     */
+    private Signature metadata;
 }
@@ -2,8 +2,10 @@ package ee.openeid.siga.common.model;
 
 import lombok.Data;
 
+import java.io.Serializable;
+
 @Data
-public class Signature {
+public class Signature implements Serializable {
     protected String id;
     protected String generatedSignatureId;
     protected String signerInfo;
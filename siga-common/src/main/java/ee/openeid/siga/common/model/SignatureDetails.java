@@ -0,0 +1,29 @@
+package ee.openeid.siga.common.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Details of a parsed signature. Certificates are Base64 encoded and times are ISO-8601 instants.
+ */
+@Value
+@Builder
+public class SignatureDetails {
+    String id;
+    String signerInfo;
+    String signatureProfile;
+    String signingCertificate;
+    String claimedSigningTime;
+    String trustedSigningTime;
+    String ocspCertificate;
+    String ocspResponseCreationTime;
+    String timeStampCreationTime;
+    String timeStampTokenCertificate;
+    String city;
+    String countryName;
+    String postalCode;
+    String stateOrProvince;
+    List<String> roles;
+}
@@ -0,0 +1,29 @@
+package ee.openeid.siga.common.session;
+
+import ee.openeid.siga.common.model.Signature;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Metadata of an ASiC container, collected when the container is written to the session, so that listing data files
+ * or signatures does not require parsing the container.
+ */
+@Data
+public class AsicContainerIndex implements Serializable {
+    /**
+     * Type of the container, or {@code null} if the index has been written without it.
+     */
+    private String containerType;
+    private List<DataFileEntry> dataFiles = new ArrayList<>();
+    private List<Signature> signatures = new ArrayList<>();
+
+    @Data
+    public static class DataFileEntry implements Serializable {
+        private String fileName;
+        private long fileSize;
+        private String fileHashSha256;
+    }
+}
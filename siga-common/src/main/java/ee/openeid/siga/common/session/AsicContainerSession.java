@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.security.cert.X509Certificate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Slf4j
 @Getter
@@ -24,11 +25,28 @@ public class AsicContainerSession implements Session {
     private String serviceUuid;
     @NonNull
     private String sessionId;
+    /**
+     * Container bytes are stored separately from the session and loaded lazily on first access.
+     */
     @NonNull
+    @Getter(AccessLevel.NONE)
+    private transient byte [] container;
+    private String containerVersion;
+    private int containerPageCount;
     @Setter
-    private byte [] container;
+    private boolean containerCompressed;
+    @Getter(AccessLevel.NONE)
+    private transient Supplier<byte[]> containerLoader;
+    /**
+     * Generated signature IDs mapped to the keys identifying the signatures in the container.
+     */
     @Builder.Default
-    private Map<String, Integer> signatureIdHolder = new HashMap<>();
+    private Map<String, String> signatureIdHolder = new HashMap<>();
+    /**
+     * Metadata of the container, or {@code null} if the session has been written without it.
+     */
+    @Setter
+    private AsicContainerIndex containerIndex;
 
     @Setter
     @Builder.Default
@@ -40,6 +58,38 @@ public class AsicContainerSession implements Session {
     @Builder.Default
     private Map<String, X509Certificate> certificateHolder = new HashMap<>();
 
+    public byte[] getContainer() {
+        if (container == null && containerLoader != null) {
+            container = containerLoader.get();
+        }
+        return container;
+    }
+
+    public void setContainer(@NonNull byte[] container) {
+        this.container = container;
+        this.containerLoader = null;
+    }
+
+    /**
+     * Returns true if the container has been set on this session and has not been written to the session store yet.
+     */
+    public boolean isContainerModified() {
+        return container != null && containerLoader == null;
+    }
+
+    /**
+     * Returns true if the session has a container, without loading a container stored in the session store.
+     */
+    public boolean hasContainer() {
+        return container != null || (containerLoader != null && containerPageCount > 0);
+    }
+
+    public void setContainerData(String containerVersion, int containerPageCount, @NonNull Supplier<byte[]> containerLoader) {
+        this.containerVersion = containerVersion;
+        this.containerPageCount = containerPageCount;
+        this.containerLoader = containerLoader;
+    }
+
     @Override
     public void addSignatureSession(String signatureId, SignatureSession signatureSession) {
         signatureSessions.put(signatureId, signatureSession);
@@ -65,8 +115,8 @@ public class AsicContainerSession implements Session {
         return certificateHolder.get(documentNumber);
     }
 
-    public void addSignatureId(String signatureId, Integer hash) {
-        this.signatureIdHolder.put(signatureId, hash);
+    public void addSignatureId(String signatureId, String signatureKey) {
+        this.signatureIdHolder.put(signatureId, signatureKey);
     }
 
     public SignatureSession getSignatureSession(String signatureId) {
@@ -4,9 +4,11 @@ import ee.openeid.siga.common.model.RelyingPartyInfo;
 import lombok.Builder;
 import lombok.Data;
 
+import java.io.Serializable;
+
 @Data
 @Builder
-public class CertificateSession {
+public class CertificateSession implements Serializable {
     private RelyingPartyInfo relyingPartyInfo;
     private String sessionCode;
     private String documentNumber;
@@ -11,9 +11,11 @@ import org.apache.ignite.binary.BinaryWriter;
 import org.apache.ignite.binary.Binarylizable;
 import org.digidoc4j.DataToSign;
 
+import java.io.Serializable;
+
 @Data
 @Builder
-public class SignatureSession implements Binarylizable {
+public class SignatureSession implements Binarylizable, Serializable {
     private String sessionCode;
     private byte[] signature;
     @Builder.Default
@@ -112,9 +112,9 @@ class AsicContainerSessionTest {
     @Test
     void addSignatureToContainerSession() throws IOException {
         AsicContainerSession sessionHolder = generateDefaultSessionHolder();
-        sessionHolder.addSignatureId("signatureID", 23894237);
-        Integer signatureHashCode = sessionHolder.getSignatureIdHolder().get("signatureID");
-        assertEquals(Integer.valueOf(23894237), signatureHashCode);
+        sessionHolder.addSignatureId("signatureID", "S0:c2lnbmF0dXJlS2V5");
+        String signatureKey = sessionHolder.getSignatureIdHolder().get("signatureID");
+        assertEquals("S0:c2lnbmF0dXJlS2V5", signatureKey);
     }
 
     @Test
@@ -2,6 +2,7 @@ package ee.openeid.siga.session;
 
 public enum CacheName {
     CONTAINER_SESSION,
+    CONTAINER_DATA,
     SIGNATURE_SESSION,
     CERTIFICATE_SESSION
 }
@@ -0,0 +1,173 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.auth.repository.ConnectionRepository;
+import ee.openeid.siga.auth.repository.ServiceRepository;
+import ee.openeid.siga.common.exception.InvalidSessionDataException;
+import ee.openeid.siga.session.configuration.ConnectionCleanupProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes connection data of expired sessions in batches. Expired session IDs are queued and the connections of
+ * each service are deleted with a single statement, either at {@code siga.connection-cleanup.interval} or as soon
+ * as {@code siga.connection-cleanup.batch-size} sessions have been queued. When the queue is full, the thread
+ * reporting the expiry deletes the queued connections itself, so that no expiry is lost. Sessions of a service whose
+ * connections could not be deleted are retried on the next flush, invalid session IDs are skipped.
+ */
+@Slf4j
+public class ExpiredConnectionCleaner implements SessionExpiryListener {
+    private final ConnectionRepository connectionRepository;
+    private final ServiceRepository serviceRepository;
+    private final ConnectionCleanupProperties connectionCleanupProperties;
+    private final BlockingQueue<String> expiredSessionIds;
+    private final List<String> retrySessionIds = new ArrayList<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "siga-connection-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter deletedConnectionsCounter;
+    private final Counter backpressureCounter;
+    private final Counter droppedSessionsCounter;
+    private final Timer batchTimer;
+
+    public ExpiredConnectionCleaner(ConnectionRepository connectionRepository, ServiceRepository serviceRepository,
+                                    ConnectionCleanupProperties connectionCleanupProperties, MeterRegistry meterRegistry) {
+        this.connectionRepository = connectionRepository;
+        this.serviceRepository = serviceRepository;
+        this.connectionCleanupProperties = connectionCleanupProperties;
+        this.expiredSessionIds = new ArrayBlockingQueue<>(connectionCleanupProperties.getQueueCapacity());
+        Gauge.builder("siga.connection.cleanup.queue.size", expiredSessionIds, BlockingQueue::size)
+                .description("Number of expired sessions waiting for their connections to be deleted")
+                .register(meterRegistry);
+        this.deletedConnectionsCounter = Counter.builder("siga.connection.cleanup.deleted")
+                .description("Number of connections deleted for expired sessions")
+                .register(meterRegistry);
+        this.backpressureCounter = Counter.builder("siga.connection.cleanup.backpressure")
+                .description("Number of times the queue was full and connections were deleted by the expiry thread")
+                .register(meterRegistry);
+        this.droppedSessionsCounter = Counter.builder("siga.connection.cleanup.dropped")
+                .description("Number of expired sessions whose connections were not deleted due to invalid session ID or full retry list")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("siga.connection.cleanup.batch")
+                .description("Time taken to delete connections of a batch of expired sessions")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = connectionCleanupProperties.getInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        flushQuietly();
+    }
+
+    @Override
+    public void onSessionExpired(String sessionId) {
+        while (!expiredSessionIds.offer(sessionId)) {
+            log.warn("Expired session queue is full, deleting {} queued connection(s) synchronously", expiredSessionIds.size());
+            backpressureCounter.increment();
+            flushQuietly();
+        }
+        if (expiredSessionIds.size() >= connectionCleanupProperties.getBatchSize() && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Deletes the connections of previously failed and all queued sessions, one batch at a time. Failed sessions are
+     * kept aside rather than queued again, so that a full queue is always drained.
+     */
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        int batchSize = connectionCleanupProperties.getBatchSize();
+        List<String> retries = new ArrayList<>(retrySessionIds);
+        retrySessionIds.clear();
+        for (int from = 0; from < retries.size(); from += batchSize) {
+            List<String> batch = retries.subList(from, Math.min(from + batchSize, retries.size()));
+            batchTimer.record(() -> deleteConnections(batch));
+        }
+        List<String> batch = new ArrayList<>(batchSize);
+        while (expiredSessionIds.drainTo(batch, batchSize) > 0) {
+            batchTimer.record(() -> deleteConnections(batch));
+            batch.clear();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Unable to delete connections of expired sessions", e);
+        }
+    }
+
+    private void deleteConnections(List<String> sessionIds) {
+        Map<String, List<SessionKey>> sessionKeysByServiceUuid = new LinkedHashMap<>();
+        for (String sessionId : sessionIds) {
+            try {
+                SessionKey sessionKey = SessionKey.parse(sessionId);
+                sessionKeysByServiceUuid.computeIfAbsent(sessionKey.getServiceUuid(), serviceUuid -> new ArrayList<>()).add(sessionKey);
+            } catch (InvalidSessionDataException e) {
+                log.warn("Skipping connection cleanup of expired session: {}", e.getMessage());
+                droppedSessionsCounter.increment();
+            }
+        }
+        sessionKeysByServiceUuid.forEach((serviceUuid, sessionKeys) -> {
+            try {
+                deleteServiceConnections(serviceUuid, sessionKeys);
+            } catch (Exception e) {
+                log.error("Unable to delete connections of {} expired container(s) by service UUID {}", sessionKeys.size(), serviceUuid, e);
+                retry(sessionKeys);
+            }
+        });
+    }
+
+    private void deleteServiceConnections(String serviceUuid, List<SessionKey> sessionKeys) {
+        List<String> containerIds = sessionKeys.stream()
+                .map(SessionKey::getContainerId)
+                .toList();
+        serviceRepository.findByUuid(serviceUuid).ifPresentOrElse(
+                service -> {
+                    int count = connectionRepository.deleteByServiceIdAndContainerIdIn(service.getId(), containerIds);
+                    deletedConnectionsCounter.increment(count);
+                    log.debug("Deleted {} connection(s) of {} expired container(s) by service ID {}", count, containerIds.size(), service.getId());
+                },
+                () -> log.debug("Service with UUID {} not found. No need to delete connections of {} expired container(s).", serviceUuid, containerIds.size())
+        );
+    }
+
+    private void retry(List<SessionKey> sessionKeys) {
+        int room = connectionCleanupProperties.getQueueCapacity() - retrySessionIds.size();
+        int dropped = Math.max(0, sessionKeys.size() - room);
+        sessionKeys.stream()
+                .limit(sessionKeys.size() - dropped)
+                .map(SessionKey::getSessionId)
+                .forEach(retrySessionIds::add);
+        if (dropped > 0) {
+            log.error("Retry list is full, connections of {} expired container(s) are not deleted", dropped);
+            droppedSessionsCounter.increment(dropped);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ee.openeid.siga.session;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteAtomicLong;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the session size ledger in the Ignite cluster. Footprints are kept in a cache keyed by session ID and sizes in
+ * cluster-wide atomic longs, so that a session accounted by one SiGa node is released by whichever node removes it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "siga.session-store", name = "type", havingValue = "ignite", matchIfMissing = true)
+@RequiredArgsConstructor
+class IgniteSessionSizeLedger implements SessionSizeLedger {
+    static final String FOOTPRINT_CACHE_NAME = "SESSION_FOOTPRINT";
+    private static final String COUNTER_NAME_PREFIX = "siga-session-size-";
+
+    private final Ignite ignite;
+    private final Map<String, SizeCounter> counters = new ConcurrentHashMap<>();
+    private volatile IgniteCache<String, SessionFootprint> footprintCache;
+
+    @Override
+    public SessionFootprint getFootprint(String sessionId) {
+        return getFootprintCache().get(sessionId);
+    }
+
+    @Override
+    public boolean replaceFootprint(String sessionId, SessionFootprint expectedFootprint, SessionFootprint footprint) {
+        return expectedFootprint == null
+                ? getFootprintCache().putIfAbsent(sessionId, footprint)
+                : getFootprintCache().replace(sessionId, expectedFootprint, footprint);
+    }
+
+    @Override
+    public SessionFootprint removeFootprint(String sessionId) {
+        return getFootprintCache().getAndRemove(sessionId);
+    }
+
+    @Override
+    public SizeCounter getCounter(String name) {
+        return counters.computeIfAbsent(name, counterName -> {
+            IgniteAtomicLong size = ignite.atomicLong(COUNTER_NAME_PREFIX + counterName, 0, true);
+            return new SizeCounter() {
+                @Override
+                public long get() {
+                    return size.get();
+                }
+
+                @Override
+                public boolean compareAndSet(long expectedSize, long newSize) {
+                    return size.compareAndSet(expectedSize, newSize);
+                }
+
+                @Override
+                public long addAndGet(long delta) {
+                    return size.addAndGet(delta);
+                }
+            };
+        });
+    }
+
+    private IgniteCache<String, SessionFootprint> getFootprintCache() {
+        if (footprintCache == null) {
+            footprintCache = ignite.getOrCreateCache(new CacheConfiguration<String, SessionFootprint>(FOOTPRINT_CACHE_NAME)
+                    .setBackups(1));
+        }
+        return footprintCache;
+    }
+}
@@ -0,0 +1,403 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.common.exception.ResourceNotFoundException;
+import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
+import ee.openeid.siga.common.session.AsicContainerSession;
+import ee.openeid.siga.common.session.CertificateSession;
+import ee.openeid.siga.common.session.HashcodeContainerSession;
+import ee.openeid.siga.common.session.Session;
+import ee.openeid.siga.common.session.SignatureSession;
+import ee.openeid.siga.common.util.UUIDGenerator;
+import ee.openeid.siga.session.SessionPayloadCompressor.PayloadType;
+import ee.openeid.siga.session.configuration.SessionConfigurationProperties;
+import ee.openeid.siga.session.configuration.SessionConfigurationProperties.NearCacheConf;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteSemaphore;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.binary.BinaryObjectBuilder;
+import org.apache.ignite.cache.CachePeekMode;
+import org.apache.ignite.cache.affinity.AffinityKey;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.cache.eviction.lru.LruEvictionPolicyFactory;
+import org.apache.ignite.configuration.NearCacheConfiguration;
+import org.apache.ignite.events.CacheEvent;
+import org.apache.ignite.events.EventType;
+import org.apache.ignite.internal.binary.builder.BinaryObjectBuilderImpl;
+import org.apache.ignite.lang.IgniteFuture;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheException;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "siga.session-store", name = "type", havingValue = "ignite", matchIfMissing = true)
+@EnableConfigurationProperties({SessionConfigurationProperties.class})
+@RequiredArgsConstructor
+public class IgniteSessionStore implements SessionStore {
+    private final Ignite ignite;
+    private final SessionConfigurationProperties sessionConfigurationProperties;
+    private final SessionPayloadCompressor payloadCompressor;
+    private final List<SessionExpiryListener> expiryListeners;
+    private final Map<CacheName, IgniteCache<?, ?>> caches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService stalePageRemover = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "siga-stale-container-pages");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void listenContainerSessionExpiry() {
+        ignite.events(ignite.cluster().forCacheNodes(CacheName.CONTAINER_SESSION.name())).remoteListen((UUID uuid, CacheEvent event) -> {
+            log.info(String.format("CACHE_OBJECT_EXPIRED event received: cacheName=%s, key=%s", event.cacheName(), event.key().toString()));
+            if (CacheName.CONTAINER_SESSION.name().equals(event.cacheName())) {
+                onContainerSessionExpired((BinaryObject) event.oldValue());
+            }
+            return true;
+        }, null, EventType.EVT_CACHE_OBJECT_EXPIRED);
+    }
+
+    /**
+     * Pending removals of stale container pages are dropped. The pages are removed by the expiry of the
+     * {@code CONTAINER_DATA} cache instead.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stalePageRemover.shutdownNow();
+    }
+
+    /**
+     * Container, signature and certificate sessions are kept in separate caches, but share the same key.
+     * All three lookups are issued at once, so the caller waits for a single round-trip instead of three.
+     */
+    @Override
+    public Session get(String sessionId) {
+        IgniteFuture<Session> containerFuture = getContainerCache().getAsync(sessionId);
+        IgniteFuture<Map<String, SignatureSession>> signatureSessionsFuture = getSignatureSessionCache().getAsync(sessionId);
+        IgniteFuture<Map<String, CertificateSession>> certificateSessionsFuture = getCertificateSessionCache().getAsync(sessionId);
+
+        Session container = containerFuture.get();
+        if (container == null) {
+            return null;
+        }
+        if (container instanceof AsicContainerSession asicContainerSession) {
+            String containerVersion = asicContainerSession.getContainerVersion();
+            int containerPageCount = asicContainerSession.getContainerPageCount();
+            boolean containerCompressed = asicContainerSession.isContainerCompressed();
+            asicContainerSession.setContainerData(containerVersion, containerPageCount,
+                    () -> readContainerData(sessionId, containerVersion, containerPageCount, containerCompressed));
+        } else if (container instanceof HashcodeContainerSession hashcodeContainerSession) {
+            hashcodeContainerSession.getSignatures().forEach(this::decompressSignature);
+        }
+        container.setSignatureSessions(Optional
+                .ofNullable(signatureSessionsFuture.get())
+                .orElseGet(HashMap::new));
+        container.setCertificateSessions(Optional
+                .ofNullable(certificateSessionsFuture.get())
+                .orElseGet(HashMap::new));
+        return container;
+    }
+
+    @Override
+    public void put(Session session) {
+        String sessionId = session.getSessionId();
+        writeContainerSession(session,
+                getSignatureSessionCache().putAsync(sessionId, session.getSignatureSessions()),
+                getCertificateSessionCache().putAsync(sessionId, session.getCertificateSessions()));
+    }
+
+    @Override
+    public void putContainerSession(Session session) {
+        writeContainerSession(session);
+    }
+
+    /**
+     * Signature sessions are read in binary form, so that the entry can be replaced only if it has not changed since
+     * it was read. Other signature sessions of the container are written back without being deserialized.
+     */
+    @Override
+    public boolean updateSignatureSession(String sessionId, String signatureId, Predicate<SignatureSession> update) {
+        IgniteCache<String, Map<String, Object>> signatureSessionCache = this.<String, Map<String, Object>>getCache(CacheName.SIGNATURE_SESSION)
+                .withKeepBinary();
+        while (true) {
+            Map<String, Object> signatureSessions = signatureSessionCache.get(sessionId);
+            if (signatureSessions == null || !(signatureSessions.get(signatureId) instanceof BinaryObject binarySignatureSession)) {
+                return false;
+            }
+            SignatureSession signatureSession = binarySignatureSession.deserialize();
+            if (!update.test(signatureSession)) {
+                return false;
+            }
+            Map<String, Object> updatedSignatureSessions = new HashMap<>(signatureSessions);
+            updatedSignatureSessions.put(signatureId, signatureSession);
+            if (signatureSessionCache.replace(sessionId, signatureSessions, updatedSignatureSessions)) {
+                return true;
+            }
+            log.debug("Signature sessions of {} changed during update of {}, retrying", sessionId, signatureId);
+        }
+    }
+
+    @Override
+    public void putCertificateSessions(String sessionId, Map<String, CertificateSession> certificateSessions) {
+        getCertificateSessionCache().put(sessionId, certificateSessions);
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        IgniteFuture<Session> containerFuture = getContainerCache().getAndRemoveAsync(sessionId);
+        awaitAll(
+                getSignatureSessionCache().removeAsync(sessionId),
+                getCertificateSessionCache().removeAsync(sessionId)
+        );
+        if (containerFuture.get() instanceof AsicContainerSession asicContainerSession) {
+            getContainerDataCache().removeAll(getContainerPageKeys(sessionId,
+                    asicContainerSession.getContainerVersion(), asicContainerSession.getContainerPageCount()));
+        }
+    }
+
+    @Override
+    public int size() {
+        return ignite.cache(CacheName.CONTAINER_SESSION.name()).size(CachePeekMode.ALL);
+    }
+
+    @Override
+    public List<String> findSessionIdsBySignatureStatus(SessionStatusFilter filter) {
+        return findSessionIds(CacheName.SIGNATURE_SESSION, filter);
+    }
+
+    @Override
+    public List<String> findSessionIdsByCertificateStatus(SessionStatusFilter filter) {
+        return findSessionIds(CacheName.CERTIFICATE_SESSION, filter);
+    }
+
+    /**
+     * Locks are failover-safe Ignite semaphores, which are released when the node holding them leaves the topology.
+     * Closing the lock removes the semaphore.
+     */
+    @Override
+    public Optional<SessionLock> tryLock(String name, Duration timeout) {
+        IgniteSemaphore semaphore = ignite.semaphore(name, 1, true, true);
+        boolean acquired = timeout.isZero()
+                ? semaphore.tryAcquire()
+                : semaphore.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        return acquired ? Optional.of(semaphore::close) : Optional.empty();
+    }
+
+    /**
+     * The sessions are filtered on the server nodes in binary form, only the matching session IDs are returned.
+     */
+    private List<String> findSessionIds(CacheName cacheName, SessionStatusFilter filter) {
+        ScanQuery<String, Map<String, BinaryObject>> query = new ScanQuery<>(new SessionStatusScanFilter(filter));
+        try (QueryCursor<String> queryCursor = ignite.getOrCreateCache(cacheName.name())
+                .withKeepBinary()
+                .query(query, new SessionIdQueryTransformer())) {
+            return queryCursor.getAll();
+        }
+    }
+
+    /**
+     * Container pages do not expire together with the container session, so they are removed here.
+     */
+    private void onContainerSessionExpired(BinaryObject sessionObject) {
+        BinaryObjectBuilder sessionObjectBuilder = BinaryObjectBuilderImpl.wrap(sessionObject);
+        String sessionId = sessionObjectBuilder.getField("sessionId");
+        if (sessionId == null) {
+            log.debug("Session with ID " + sessionId + " not found. No need to delete it.");
+            return;
+        }
+        String containerVersion = sessionObjectBuilder.getField("containerVersion");
+        Integer containerPageCount = sessionObjectBuilder.getField("containerPageCount");
+        if (containerVersion != null && containerPageCount != null) {
+            getContainerDataCache().removeAllAsync(getContainerPageKeys(sessionId, containerVersion, containerPageCount));
+            log.debug("Deleting container data of session " + sessionId);
+        }
+        expiryListeners.forEach(expiryListener -> expiryListener.onSessionExpired(sessionId));
+    }
+
+    /**
+     * Signatures of hashcode containers are compressed on a copy of the session, so that the caller can keep using
+     * the uncompressed signatures after the session is written.
+     */
+    private Session compressSignatures(Session session) {
+        if (!(session instanceof HashcodeContainerSession hashcodeContainerSession)) {
+            return session;
+        }
+        List<HashcodeSignatureWrapper> signatures = new ArrayList<>();
+        hashcodeContainerSession.getSignatures().forEach(signature -> signatures.add(compressSignature(signature)));
+        return hashcodeContainerSession.toBuilder()
+                .signatures(signatures)
+                .build();
+    }
+
+    private HashcodeSignatureWrapper compressSignature(HashcodeSignatureWrapper signatureWrapper) {
+        if (signatureWrapper.isSignatureCompressed() || signatureWrapper.getSignature() == null) {
+            return signatureWrapper;
+        }
+        return payloadCompressor.compress(PayloadType.SIGNATURE, signatureWrapper.getSignature())
+                .map(compressedSignature -> signatureWrapper.toBuilder()
+                        .signature(compressedSignature)
+                        .signatureCompressed(true)
+                        .build())
+                .orElse(signatureWrapper);
+    }
+
+    private void decompressSignature(HashcodeSignatureWrapper signatureWrapper) {
+        if (signatureWrapper.isSignatureCompressed()) {
+            signatureWrapper.setSignature(payloadCompressor.decompress(signatureWrapper.getSignature()));
+            signatureWrapper.setSignatureCompressed(false);
+        }
+    }
+
+    /**
+     * Container bytes are split into fixed-size pages, which are stored in a separate cache and colocated with each
+     * other by session ID. Every write stores the pages under a new container version, so that concurrent readers
+     * of the previous version never see a partially written container.
+     */
+    private void writeContainerData(AsicContainerSession session) {
+        String sessionId = session.getSessionId();
+        byte[] container = session.getContainer();
+        Optional<byte[]> compressedContainer = payloadCompressor.compress(PayloadType.CONTAINER, container);
+        byte[] containerData = compressedContainer.orElse(container);
+        String containerVersion = UUIDGenerator.generateUUID();
+        int pageSize = (int) sessionConfigurationProperties.getContainerPageSize().toBytes();
+        int pageCount = (containerData.length + pageSize - 1) / pageSize;
+
+        Map<AffinityKey<String>, byte[]> pages = new HashMap<>();
+        for (int pageIndex = 0; pageIndex < pageCount; pageIndex++) {
+            int from = pageIndex * pageSize;
+            pages.put(getContainerPageKey(sessionId, containerVersion, pageIndex),
+                    Arrays.copyOfRange(containerData, from, Math.min(containerData.length, from + pageSize)));
+        }
+        getContainerDataCache().putAll(pages);
+        session.setContainerCompressed(compressedContainer.isPresent());
+        session.setContainerData(containerVersion, pageCount, () -> container);
+    }
+
+    /**
+     * Requests that loaded the session before it was written may still read the pages of the previous container
+     * version, so the pages are kept for {@code siga.ignite.stale-container-page-retention} before they are removed.
+     */
+    private void removeStaleContainerPages(Set<AffinityKey<String>> stalePageKeys) {
+        if (stalePageKeys.isEmpty()) {
+            return;
+        }
+        long retention = sessionConfigurationProperties.getStaleContainerPageRetention().toMillis();
+        if (retention == 0) {
+            getContainerDataCache().removeAll(stalePageKeys);
+            return;
+        }
+        stalePageRemover.schedule(() -> {
+            try {
+                getContainerDataCache().removeAll(stalePageKeys);
+            } catch (CacheException | IgniteException e) {
+                log.warn("Unable to remove stale container pages: {}", e.getMessage());
+            }
+        }, retention, TimeUnit.MILLISECONDS);
+    }
+
+    private byte[] readContainerData(String sessionId, String containerVersion, int containerPageCount, boolean containerCompressed) {
+        Map<AffinityKey<String>, byte[]> pages = getContainerDataCache()
+                .getAll(getContainerPageKeys(sessionId, containerVersion, containerPageCount));
+        if (containerVersion == null || pages.size() != containerPageCount) {
+            throw new ResourceNotFoundException("Session container not found");
+        }
+        ByteArrayOutputStream container = new ByteArrayOutputStream();
+        for (int pageIndex = 0; pageIndex < containerPageCount; pageIndex++) {
+            container.writeBytes(pages.get(getContainerPageKey(sessionId, containerVersion, pageIndex)));
+        }
+        return containerCompressed ? payloadCompressor.decompress(container.toByteArray()) : container.toByteArray();
+    }
+
+    private static Set<AffinityKey<String>> getContainerPageKeys(String sessionId, String containerVersion, int containerPageCount) {
+        if (containerVersion == null) {
+            return Collections.emptySet();
+        }
+        Set<AffinityKey<String>> pageKeys = new HashSet<>();
+        for (int pageIndex = 0; pageIndex < containerPageCount; pageIndex++) {
+            pageKeys.add(getContainerPageKey(sessionId, containerVersion, pageIndex));
+        }
+        return pageKeys;
+    }
+
+    private static AffinityKey<String> getContainerPageKey(String sessionId, String containerVersion, int pageIndex) {
+        return new AffinityKey<>(sessionId + "_" + containerVersion + "_" + pageIndex, sessionId);
+    }
+
+    private void writeContainerSession(Session session, IgniteFuture<?>... sessionWrites) {
+        String sessionId = session.getSessionId();
+        Set<AffinityKey<String>> stalePageKeys = Collections.emptySet();
+        if (session instanceof AsicContainerSession asicContainerSession && asicContainerSession.isContainerModified()) {
+            stalePageKeys = getContainerPageKeys(sessionId, asicContainerSession.getContainerVersion(), asicContainerSession.getContainerPageCount());
+            writeContainerData(asicContainerSession);
+        }
+        IgniteFuture<Void> containerWrite = getContainerCache().putAsync(sessionId, compressSignatures(session));
+        awaitAll(sessionWrites);
+        containerWrite.get();
+        removeStaleContainerPages(stalePageKeys);
+    }
+
+    private static void awaitAll(IgniteFuture<?>... futures) {
+        for (IgniteFuture<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private IgniteCache<String, Session> getContainerCache() {
+        return getCache(CacheName.CONTAINER_SESSION);
+    }
+
+    private IgniteCache<AffinityKey<String>, byte[]> getContainerDataCache() {
+        return getCache(CacheName.CONTAINER_DATA);
+    }
+
+    private IgniteCache<String, Map<String, SignatureSession>> getSignatureSessionCache() {
+        return getCache(CacheName.SIGNATURE_SESSION);
+    }
+
+    private IgniteCache<String, Map<String, CertificateSession>> getCertificateSessionCache() {
+        return getCache(CacheName.CERTIFICATE_SESSION);
+    }
+
+    /**
+     * Caches configured with {@code siga.ignite.near-cache} are accessed through a near cache on the local node.
+     * Ignite keeps near cache entries coherent with the server nodes, so updates and removals invalidate them.
+     */
+    @SuppressWarnings("unchecked")
+    private <K, V> IgniteCache<K, V> getCache(CacheName cacheName) {
+        return (IgniteCache<K, V>) caches.computeIfAbsent(cacheName, name -> {
+            NearCacheConf nearCacheConf = sessionConfigurationProperties.getNearCache().get(name);
+            if (nearCacheConf == null) {
+                return ignite.getOrCreateCache(name.name());
+            }
+            log.info("Using near cache for {} with max size {}", name, nearCacheConf.getMaxSize());
+            NearCacheConfiguration<Object, Object> nearCacheConfiguration = new NearCacheConfiguration<>()
+                    .setNearEvictionPolicyFactory(new LruEvictionPolicyFactory<>(nearCacheConf.getMaxSize()));
+            return ignite.getOrCreateNearCache(name.name(), nearCacheConfiguration);
+        });
+    }
+}
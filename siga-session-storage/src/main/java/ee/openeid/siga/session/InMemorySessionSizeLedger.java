@@ -0,0 +1,58 @@
+package ee.openeid.siga.session;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the session size ledger in the memory of the local node, matching the {@link InMemorySessionStore}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "siga.session-store", name = "type", havingValue = "in-memory")
+class InMemorySessionSizeLedger implements SessionSizeLedger {
+    private final Map<String, SessionFootprint> footprints = new ConcurrentHashMap<>();
+    private final Map<String, SizeCounter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public SessionFootprint getFootprint(String sessionId) {
+        return footprints.get(sessionId);
+    }
+
+    @Override
+    public boolean replaceFootprint(String sessionId, SessionFootprint expectedFootprint, SessionFootprint footprint) {
+        return expectedFootprint == null
+                ? footprints.putIfAbsent(sessionId, footprint) == null
+                : footprints.replace(sessionId, expectedFootprint, footprint);
+    }
+
+    @Override
+    public SessionFootprint removeFootprint(String sessionId) {
+        return footprints.remove(sessionId);
+    }
+
+    @Override
+    public SizeCounter getCounter(String name) {
+        return counters.computeIfAbsent(name, counterName -> {
+            AtomicLong size = new AtomicLong();
+            return new SizeCounter() {
+                @Override
+                public long get() {
+                    return size.get();
+                }
+
+                @Override
+                public boolean compareAndSet(long expectedSize, long newSize) {
+                    return size.compareAndSet(expectedSize, newSize);
+                }
+
+                @Override
+                public long addAndGet(long delta) {
+                    return size.addAndGet(delta);
+                }
+            };
+        });
+    }
+}
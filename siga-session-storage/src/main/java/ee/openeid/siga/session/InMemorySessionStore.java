@@ -0,0 +1,212 @@
+package ee.openeid.siga.session;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import ee.openeid.siga.common.session.AsicContainerSession;
+import ee.openeid.siga.common.session.CertificateSession;
+import ee.openeid.siga.common.session.Session;
+import ee.openeid.siga.common.session.SessionStatus;
+import ee.openeid.siga.common.session.SignatureSession;
+import ee.openeid.siga.common.util.UUIDGenerator;
+import ee.openeid.siga.session.configuration.SessionStoreProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.SerializationUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Keeps sessions in the memory of the local node. Meant for single node deployments and load tests, sessions are not
+ * shared between nodes and do not survive a restart. Container sessions expire when they have not been accessed
+ * for {@code siga.session-store.time-to-live}, signature and certificate sessions when they have not been modified
+ * for the same duration. Locks are only shared by the callers on the local node.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "siga.session-store", name = "type", havingValue = "in-memory")
+@EnableConfigurationProperties({SessionStoreProperties.class})
+public class InMemorySessionStore implements SessionStore {
+    private static final long LOCK_RETRY_INTERVAL_MILLIS = 10;
+
+    private final List<SessionExpiryListener> expiryListeners;
+    private final Cache<String, StoredSession> containerSessions;
+    private final Cache<String, byte[]> signatureSessions;
+    private final Cache<String, byte[]> certificateSessions;
+    private final Set<String> locks = ConcurrentHashMap.newKeySet();
+
+    public InMemorySessionStore(SessionStoreProperties sessionStoreProperties, List<SessionExpiryListener> expiryListeners) {
+        this.expiryListeners = expiryListeners;
+        this.containerSessions = CacheBuilder.newBuilder()
+                .maximumSize(sessionStoreProperties.getMaxSize())
+                .expireAfterAccess(sessionStoreProperties.getTimeToLive())
+                .removalListener(this::onContainerSessionRemoved)
+                .build();
+        this.signatureSessions = CacheBuilder.newBuilder()
+                .expireAfterWrite(sessionStoreProperties.getTimeToLive())
+                .build();
+        this.certificateSessions = CacheBuilder.newBuilder()
+                .expireAfterWrite(sessionStoreProperties.getTimeToLive())
+                .build();
+    }
+
+    /**
+     * Sessions are stored serialized, so that changes to returned sessions do not leak into the store before they
+     * are written back. Container bytes are never modified in place and are therefore shared.
+     */
+    @Override
+    public Session get(String sessionId) {
+        StoredSession storedSession = containerSessions.getIfPresent(sessionId);
+        if (storedSession == null) {
+            return null;
+        }
+        Session session = SerializationUtils.deserialize(storedSession.session());
+        if (session instanceof AsicContainerSession asicContainerSession) {
+            asicContainerSession.setContainerData(asicContainerSession.getContainerVersion(),
+                    asicContainerSession.getContainerPageCount(), storedSession::container);
+        }
+        session.setSignatureSessions(deserializeOrEmpty(signatureSessions.getIfPresent(sessionId)));
+        session.setCertificateSessions(deserializeOrEmpty(certificateSessions.getIfPresent(sessionId)));
+        return session;
+    }
+
+    @Override
+    public void put(Session session) {
+        putContainerSession(session);
+        String sessionId = session.getSessionId();
+        signatureSessions.put(sessionId, SerializationUtils.serialize((Serializable) session.getSignatureSessions()));
+        putCertificateSessions(sessionId, session.getCertificateSessions());
+    }
+
+    @Override
+    public void putContainerSession(Session session) {
+        String sessionId = session.getSessionId();
+        byte[] container = null;
+        if (session instanceof AsicContainerSession asicContainerSession) {
+            String containerVersion = asicContainerSession.isContainerModified()
+                    ? UUIDGenerator.generateUUID()
+                    : asicContainerSession.getContainerVersion();
+            byte[] sessionContainer = asicContainerSession.getContainer();
+            asicContainerSession.setContainerData(containerVersion, sessionContainer == null ? 0 : 1, () -> sessionContainer);
+            container = sessionContainer;
+        }
+        containerSessions.put(sessionId, new StoredSession(SerializationUtils.serialize(session), container));
+    }
+
+    @Override
+    public boolean updateSignatureSession(String sessionId, String signatureId, Predicate<SignatureSession> update) {
+        AtomicBoolean updated = new AtomicBoolean();
+        signatureSessions.asMap().computeIfPresent(sessionId, (id, serializedSessions) -> {
+            Map<String, SignatureSession> sessions = SerializationUtils.deserialize(serializedSessions);
+            SignatureSession signatureSession = sessions.get(signatureId);
+            if (signatureSession == null || !update.test(signatureSession)) {
+                return serializedSessions;
+            }
+            updated.set(true);
+            return SerializationUtils.serialize((Serializable) sessions);
+        });
+        return updated.get();
+    }
+
+    @Override
+    public void putCertificateSessions(String sessionId, Map<String, CertificateSession> certificateSessions) {
+        this.certificateSessions.put(sessionId, SerializationUtils.serialize((Serializable) certificateSessions));
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        containerSessions.invalidate(sessionId);
+        signatureSessions.invalidate(sessionId);
+        certificateSessions.invalidate(sessionId);
+    }
+
+    @Override
+    public int size() {
+        return (int) containerSessions.size();
+    }
+
+    @Override
+    public List<String> findSessionIdsBySignatureStatus(SessionStatusFilter filter) {
+        return findSessionIds(signatureSessions, filter, SignatureSession::getSessionStatus);
+    }
+
+    @Override
+    public List<String> findSessionIdsByCertificateStatus(SessionStatusFilter filter) {
+        return findSessionIds(certificateSessions, filter, CertificateSession::getSessionStatus);
+    }
+
+    @Override
+    public Optional<SessionLock> tryLock(String name, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!locks.add(name)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return Optional.empty();
+            }
+            try {
+                Thread.sleep(LOCK_RETRY_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+        }
+        return Optional.of(() -> locks.remove(name));
+    }
+
+    /**
+     * Expired entries are otherwise only removed when the store is accessed, which would delay expiry listeners.
+     */
+    @Scheduled(fixedDelayString = "${siga.session-store.cleanup-interval:10000}")
+    public void cleanUp() {
+        containerSessions.cleanUp();
+        signatureSessions.cleanUp();
+        certificateSessions.cleanUp();
+    }
+
+    private void onContainerSessionRemoved(RemovalNotification<String, StoredSession> notification) {
+        if (!notification.wasEvicted()) {
+            return;
+        }
+        String sessionId = notification.getKey();
+        log.info("Container session expired: key={}, cause={}", sessionId, notification.getCause());
+        signatureSessions.invalidate(sessionId);
+        certificateSessions.invalidate(sessionId);
+        expiryListeners.forEach(expiryListener -> expiryListener.onSessionExpired(sessionId));
+    }
+
+    private static <V> List<String> findSessionIds(Cache<String, byte[]> sessions, SessionStatusFilter filter,
+                                                   Function<V, SessionStatus> statusGetter) {
+        List<String> sessionIds = new ArrayList<>();
+        sessions.asMap().forEach((sessionId, serializedSessions) -> {
+            Map<String, V> deserializedSessions = SerializationUtils.deserialize(serializedSessions);
+            boolean matches = deserializedSessions.values().stream()
+                    .map(statusGetter)
+                    .anyMatch(sessionStatus -> filter.test(sessionStatus.getProcessingStatus(),
+                            sessionStatus.getProcessingStatusTimestamp(), sessionStatus.getProcessingCounter()));
+            if (matches) {
+                sessionIds.add(sessionId);
+            }
+        });
+        return sessionIds;
+    }
+
+    private static <V> Map<String, V> deserializeOrEmpty(byte[] serializedSessions) {
+        return serializedSessions == null ? new HashMap<>() : SerializationUtils.deserialize(serializedSessions);
+    }
+
+    private record StoredSession(byte[] session, byte[] container) {
+    }
+}
@@ -0,0 +1,10 @@
+package ee.openeid.siga.session;
+
+/**
+ * Notified by the {@link SessionStore} when a container session expires.
+ */
+@FunctionalInterface
+public interface SessionExpiryListener {
+
+    void onSessionExpired(String sessionId);
+}
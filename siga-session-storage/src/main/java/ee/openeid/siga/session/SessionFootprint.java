@@ -0,0 +1,30 @@
+package ee.openeid.siga.session;
+
+import lombok.Value;
+import lombok.With;
+
+/**
+ * Sizes accounted by the {@link SessionSizeLimiter} for a single container session.
+ */
+@Value
+@With
+class SessionFootprint {
+    String serviceUuid;
+    long containerSessionSize;
+    long containerDataSize;
+    long signatureSessionSize;
+    long certificateSessionSize;
+
+    long size(CacheName cacheName) {
+        return switch (cacheName) {
+            case CONTAINER_SESSION -> containerSessionSize;
+            case CONTAINER_DATA -> containerDataSize;
+            case SIGNATURE_SESSION -> signatureSessionSize;
+            case CERTIFICATE_SESSION -> certificateSessionSize;
+        };
+    }
+
+    long total() {
+        return containerSessionSize + containerDataSize + signatureSessionSize + certificateSessionSize;
+    }
+}
@@ -0,0 +1,52 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.common.exception.InvalidSessionDataException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Identifies a container session by application cache version, service UUID and container ID. The session ID string
+ * used as the Ignite cache key is built once, and it is parsed back in a single pass without {@code String.split}.
+ */
+@Getter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public final class SessionKey {
+    private static final char SEPARATOR = '_';
+
+    @EqualsAndHashCode.Include
+    private final String sessionId;
+    private final String applicationCacheVersion;
+    private final String serviceUuid;
+    private final String containerId;
+
+    private SessionKey(String sessionId, String applicationCacheVersion, String serviceUuid, String containerId) {
+        this.sessionId = sessionId;
+        this.applicationCacheVersion = applicationCacheVersion;
+        this.serviceUuid = serviceUuid;
+        this.containerId = containerId;
+    }
+
+    public static SessionKey of(@NonNull String applicationCacheVersion, @NonNull String serviceUuid, @NonNull String containerId) {
+        String sessionId = applicationCacheVersion + SEPARATOR + serviceUuid + SEPARATOR + containerId;
+        return new SessionKey(sessionId, applicationCacheVersion, serviceUuid, containerId);
+    }
+
+    public static SessionKey parse(@NonNull String sessionId) {
+        int serviceUuidStart = sessionId.indexOf(SEPARATOR) + 1;
+        int containerIdStart = serviceUuidStart == 0 ? 0 : sessionId.indexOf(SEPARATOR, serviceUuidStart) + 1;
+        if (containerIdStart == 0 || containerIdStart == sessionId.length()
+                || sessionId.indexOf(SEPARATOR, containerIdStart) != -1) {
+            throw new InvalidSessionDataException("Invalid sessionId: " + sessionId);
+        }
+        return new SessionKey(sessionId,
+                sessionId.substring(0, serviceUuidStart - 1),
+                sessionId.substring(serviceUuidStart, containerIdStart - 1),
+                sessionId.substring(containerIdStart));
+    }
+
+    @Override
+    public String toString() {
+        return sessionId;
+    }
+}
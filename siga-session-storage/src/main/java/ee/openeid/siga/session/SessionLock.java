@@ -0,0 +1,11 @@
+package ee.openeid.siga.session;
+
+/**
+ * Lock acquired from the {@link SessionStore}, released by closing it.
+ */
+@FunctionalInterface
+public interface SessionLock extends AutoCloseable {
+
+    @Override
+    void close();
+}
@@ -0,0 +1,109 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.common.exception.TechnicalException;
+import ee.openeid.siga.session.configuration.SessionConfigurationProperties;
+import ee.openeid.siga.session.configuration.SessionConfigurationProperties.CompressionConf;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses large session payloads, such as container bytes and signature XML, before they are stored in Ignite.
+ * Payloads smaller than {@code siga.ignite.compression.threshold} and payloads that do not get smaller are stored
+ * as is.
+ */
+@Component
+@ConditionalOnProperty(prefix = "siga.session-store", name = "type", havingValue = "ignite", matchIfMissing = true)
+public class SessionPayloadCompressor {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CompressionConf compressionConf;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public SessionPayloadCompressor(SessionConfigurationProperties sessionConfigurationProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(sessionConfigurationProperties, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    public SessionPayloadCompressor(SessionConfigurationProperties sessionConfigurationProperties, MeterRegistry meterRegistry) {
+        this.compressionConf = sessionConfigurationProperties.getCompression();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns the compressed payload, or an empty optional if the payload should be stored uncompressed.
+     */
+    public Optional<byte[]> compress(PayloadType payloadType, byte[] payload) {
+        if (!compressionConf.isEnabled() || payload.length < compressionConf.getThreshold().toBytes()) {
+            return Optional.empty();
+        }
+        Deflater deflater = new Deflater(compressionConf.getLevel());
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(payload.length / 2);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished() && compressed.size() < payload.length) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            if (!deflater.finished() || compressed.size() >= payload.length) {
+                recordRatio(payloadType, 1);
+                return Optional.empty();
+            }
+            recordRatio(payloadType, (double) payload.length / compressed.size());
+            return Optional.of(compressed.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public byte[] decompress(byte[] payload) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            ByteArrayOutputStream decompressed = new ByteArrayOutputStream(payload.length * 2);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new TechnicalException("Unable to decompress session payload: unexpected end of data");
+                }
+                decompressed.write(buffer, 0, length);
+            }
+            return decompressed.toByteArray();
+        } catch (DataFormatException e) {
+            throw new TechnicalException("Unable to decompress session payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private void recordRatio(PayloadType payloadType, double ratio) {
+        DistributionSummary.builder("siga.session.compression.ratio")
+                .description("Ratio of uncompressed to compressed size of session payloads stored in Ignite")
+                .tag("payload", payloadType.getTagValue())
+                .register(meterRegistry)
+                .record(ratio);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum PayloadType {
+        CONTAINER("container"),
+        SIGNATURE("signature");
+
+        private final String tagValue;
+    }
+}
@@ -1,30 +1,28 @@
 package ee.openeid.siga.session;
 
-import ee.openeid.siga.common.exception.InvalidSessionDataException;
 import ee.openeid.siga.common.exception.ResourceNotFoundException;
-import ee.openeid.siga.common.session.CertificateSession;
 import ee.openeid.siga.common.session.Session;
 import ee.openeid.siga.common.session.SignatureSession;
 import ee.openeid.siga.session.configuration.SessionConfigurationProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.ignite.Ignite;
-import org.apache.ignite.cache.CachePeekMode;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
-import javax.cache.Cache;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 @Slf4j
 @Component
 @EnableConfigurationProperties({SessionConfigurationProperties.class})
 @RequiredArgsConstructor
 public class SessionService {
-    private final Ignite ignite;
+    private final SessionStore sessionStore;
+    private final SessionSizeLimiter sessionSizeLimiter;
     private final SessionConfigurationProperties sessionConfigurationProperties;
 
     public Session getContainer(String containerId) {
@@ -33,22 +31,55 @@ public class SessionService {
     }
 
     public Session getContainerBySessionId(String sessionId) {
-        Session container = Optional.ofNullable(getContainerCache().get(sessionId))
+        Session container = Optional.ofNullable(sessionStore.get(sessionId))
                 .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
         log.debug("Found container with container ID [{}]", container.getSessionId());
-        container.setSignatureSessions(Optional
-                .ofNullable(getSignatureSessionCache().get(sessionId))
-                .orElseGet(HashMap::new));
-        container.setCertificateSessions(Optional
-                .ofNullable(getCertificateSessionCache().get(sessionId))
-                .orElseGet(HashMap::new));
         return container;
     }
 
+    /**
+     * Writes the session to the session store.
+     *
+     * @throws ee.openeid.siga.common.exception.SessionSizeLimitException if storing the session would exceed
+     *                                                                     a session size limit
+     */
     public void update(Session session) {
-        getContainerCache().put(session.getSessionId(), session);
-        getSignatureSessionCache().put(session.getSessionId(), session.getSignatureSessions());
-        getCertificateSessionCache().put(session.getSessionId(), session.getCertificateSessions());
+        sessionSizeLimiter.admit(session);
+        sessionStore.put(session);
+    }
+
+    /**
+     * Atomically updates a single signature session without reading or writing the container or other signature
+     * sessions. Use from status polling, where the signature session may be updated concurrently. The growth of the
+     * signature session is accounted, but not limited.
+     *
+     * @return {@code true} if the signature session was found and updated
+     */
+    public boolean updateSignatureSession(String sessionId, String signatureId, Predicate<SignatureSession> update) {
+        AtomicLong growth = new AtomicLong();
+        boolean updated = sessionStore.updateSignatureSession(sessionId, signatureId, signatureSession -> {
+            long previousSize = SessionSizeLimiter.sizeOf(signatureSession);
+            boolean modified = update.test(signatureSession);
+            growth.set(SessionSizeLimiter.sizeOf(signatureSession) - previousSize);
+            return modified;
+        });
+        if (updated) {
+            sessionSizeLimiter.accountSignatureSessionUpdate(sessionId, growth.get());
+        }
+        return updated;
+    }
+
+    /**
+     * Writes the container session and its certificate sessions, leaving the stored signature sessions untouched.
+     * Use from certificate status polling, where signature sessions may be updated concurrently.
+     *
+     * @throws ee.openeid.siga.common.exception.SessionSizeLimitException if storing the certificate sessions would
+     *                                                                     exceed a session size limit
+     */
+    public void updateCertificateSessions(Session session) {
+        sessionSizeLimiter.admit(session);
+        sessionStore.putContainerSession(session);
+        sessionStore.putCertificateSessions(session.getSessionId(), session.getCertificateSessions());
     }
 
     public void removeByContainerId(String containerId) {
@@ -57,47 +88,45 @@ public class SessionService {
     }
 
     public void removeBySessionId(String sessionId) {
-        getContainerCache().remove(sessionId);
-        getSignatureSessionCache().remove(sessionId);
-        getCertificateSessionCache().remove(sessionId);
+        sessionStore.remove(sessionId);
+        sessionSizeLimiter.release(sessionId);
     }
 
-    private Cache<String, Session> getContainerCache() {
-        return ignite.getOrCreateCache(CacheName.CONTAINER_SESSION.name());
+    public int getCacheSize() {
+        return sessionStore.size();
     }
 
-    private Cache<String, Map<String, SignatureSession>> getSignatureSessionCache() {
-        return ignite.getOrCreateCache(CacheName.SIGNATURE_SESSION.name());
+    public List<String> findSessionIdsBySignatureStatus(SessionStatusFilter filter) {
+        return sessionStore.findSessionIdsBySignatureStatus(filter);
     }
 
-    private Cache<String, Map<String, CertificateSession>> getCertificateSessionCache() {
-        return ignite.getOrCreateCache(CacheName.CERTIFICATE_SESSION.name());
+    public List<String> findSessionIdsByCertificateStatus(SessionStatusFilter filter) {
+        return sessionStore.findSessionIdsByCertificateStatus(filter);
     }
 
-    public int getCacheSize() {
-        return ignite.cache(CacheName.CONTAINER_SESSION.name()).size(CachePeekMode.ALL);
+    /**
+     * Tries to acquire the lock with the given name, shared by all SiGa nodes using the same session store.
+     *
+     * @return the acquired lock to be released by closing it, or empty if the lock was not acquired within the timeout
+     */
+    public Optional<SessionLock> tryLock(String name, Duration timeout) {
+        return sessionStore.tryLock(name, timeout);
     }
 
     public String getSessionId(String containerId) {
+        return getSessionKey(containerId).getSessionId();
+    }
+
+    public SessionKey getSessionKey(String containerId) {
         String user = SecurityContextHolder.getContext().getAuthentication().getName();
-        return sessionConfigurationProperties.getApplicationCacheVersion() + "_" + user + "_" + containerId;
+        return SessionKey.of(sessionConfigurationProperties.getApplicationCacheVersion(), user, containerId);
     }
 
     public static String parseServiceUuid(String sessionId) {
-        String[] sessionIdParts = sessionId.split("_");
-        if (sessionIdParts.length == 3) {
-            return sessionIdParts[1];
-        } else {
-            throw new InvalidSessionDataException("Invalid sessionId: " + sessionId);
-        }
+        return SessionKey.parse(sessionId).getServiceUuid();
     }
 
     public static String parseContainerId(String sessionId) {
-        String[] sessionIdParts = sessionId.split("_");
-        if (sessionIdParts.length == 3) {
-            return sessionIdParts[2];
-        } else {
-            throw new InvalidSessionDataException("Invalid sessionId: " + sessionId);
-        }
+        return SessionKey.parse(sessionId).getContainerId();
     }
 }
@@ -0,0 +1,39 @@
+package ee.openeid.siga.session;
+
+/**
+ * Holds the footprints and sizes accounted by the {@link SessionSizeLimiter}. The ledger is kept next to the sessions,
+ * so that it is shared by all SiGa nodes using the same session store.
+ */
+interface SessionSizeLedger {
+
+    /**
+     * Returns the footprint accounted for the session, or {@code null} if the session is not accounted.
+     */
+    SessionFootprint getFootprint(String sessionId);
+
+    /**
+     * Replaces the footprint of the session only if it has not changed since the expected footprint was read.
+     * A {@code null} expected footprint means that the session was not accounted.
+     *
+     * @return {@code true} if the footprint was replaced
+     */
+    boolean replaceFootprint(String sessionId, SessionFootprint expectedFootprint, SessionFootprint footprint);
+
+    /**
+     * Removes the footprint of the session. Of concurrent callers, only one receives the removed footprint.
+     *
+     * @return the removed footprint, or {@code null} if the session was not accounted
+     */
+    SessionFootprint removeFootprint(String sessionId);
+
+    SizeCounter getCounter(String name);
+
+    interface SizeCounter {
+
+        long get();
+
+        boolean compareAndSet(long expectedSize, long size);
+
+        long addAndGet(long delta);
+    }
+}
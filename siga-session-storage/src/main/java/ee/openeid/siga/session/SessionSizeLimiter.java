@@ -0,0 +1,333 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.common.exception.SessionSizeLimitException;
+import ee.openeid.siga.common.model.HashcodeDataFile;
+import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
+import ee.openeid.siga.common.session.AsicContainerSession;
+import ee.openeid.siga.common.session.CertificateSession;
+import ee.openeid.siga.common.session.HashcodeContainerSession;
+import ee.openeid.siga.common.session.Session;
+import ee.openeid.siga.common.session.SignatureSession;
+import ee.openeid.siga.session.configuration.SessionConfigurationProperties;
+import ee.openeid.siga.session.SessionSizeLedger.SizeCounter;
+import ee.openeid.siga.session.configuration.SessionSizeLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps account of the bytes stored for container sessions, per session cache and per service, and rejects session
+ * updates that would exceed {@code siga.session-size-limit.*} before they are written to the session store. Sizes are
+ * estimated from the payloads that dominate the stored sessions: container bytes, signatures, data to sign and signing
+ * certificates.
+ * <p>
+ * Sessions are accounted in the {@link SessionSizeLedger} of the session store and released when they are removed or
+ * expire, so the limits apply to all SiGa nodes sharing the sessions. Sizes are only accounted when at least one limit
+ * is configured.
+ * <p>
+ * The cache and service sizes are reserved with compare-and-set before the footprint of the session is replaced. If the
+ * footprint has been replaced concurrently, the reserved sizes are given back and the session is measured again.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties({SessionConfigurationProperties.class, SessionSizeLimitProperties.class})
+public class SessionSizeLimiter implements SessionExpiryListener {
+    private static final List<CacheName> SIZED_CACHES = List.of(
+            CacheName.CONTAINER_SESSION, CacheName.CONTAINER_DATA, CacheName.SIGNATURE_SESSION, CacheName.CERTIFICATE_SESSION);
+
+    private final SessionSizeLimitProperties sessionSizeLimitProperties;
+    private final long containerPageSize;
+    private final SessionSizeLedger sessionSizeLedger;
+    private final MeterRegistry meterRegistry;
+    private final Map<CacheName, SizeCounter> cacheSizes = new EnumMap<>(CacheName.class);
+    private final Map<String, SizeCounter> serviceSizes = new ConcurrentHashMap<>();
+    private final Counter cacheLimitRejectionCounter;
+    private final Counter serviceLimitRejectionCounter;
+
+    @Autowired
+    SessionSizeLimiter(SessionSizeLimitProperties sessionSizeLimitProperties,
+                       SessionConfigurationProperties sessionConfigurationProperties,
+                       SessionSizeLedger sessionSizeLedger,
+                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this(sessionSizeLimitProperties, sessionConfigurationProperties, sessionSizeLedger,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Creates a limiter accounting sessions in the memory of the local node.
+     */
+    public SessionSizeLimiter(SessionSizeLimitProperties sessionSizeLimitProperties,
+                              SessionConfigurationProperties sessionConfigurationProperties,
+                              MeterRegistry meterRegistry) {
+        this(sessionSizeLimitProperties, sessionConfigurationProperties, new InMemorySessionSizeLedger(), meterRegistry);
+    }
+
+    SessionSizeLimiter(SessionSizeLimitProperties sessionSizeLimitProperties,
+                       SessionConfigurationProperties sessionConfigurationProperties,
+                       SessionSizeLedger sessionSizeLedger,
+                       MeterRegistry meterRegistry) {
+        this.sessionSizeLimitProperties = sessionSizeLimitProperties;
+        this.containerPageSize = sessionConfigurationProperties.getContainerPageSize().toBytes();
+        this.sessionSizeLedger = sessionSizeLedger;
+        this.meterRegistry = meterRegistry;
+        for (CacheName cacheName : SIZED_CACHES) {
+            SizeCounter cacheSize = sessionSizeLedger.getCounter("cache-" + cacheName.name());
+            cacheSizes.put(cacheName, cacheSize);
+            Gauge.builder("siga.session.cache.size", cacheSize, SizeCounter::get)
+                    .description("Estimated bytes of container sessions stored in the session cache")
+                    .tag("cache", cacheName.name())
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+        this.cacheLimitRejectionCounter = createRejectionCounter("cache");
+        this.serviceLimitRejectionCounter = createRejectionCounter("service");
+    }
+
+    /**
+     * Accounts the size of the given session, replacing the size accounted for its previous version.
+     *
+     * @throws SessionSizeLimitException if the session has grown and a cache or service limit would be exceeded
+     */
+    public void admit(Session session) {
+        if (!isLimited()) {
+            return;
+        }
+        String sessionId = session.getSessionId();
+        while (true) {
+            SessionFootprint previousFootprint = sessionSizeLedger.getFootprint(sessionId);
+            SessionFootprint footprint = measure(session, previousFootprint);
+            reserve(sessionId, footprint, previousFootprint);
+            if (sessionSizeLedger.replaceFootprint(sessionId, previousFootprint, footprint)) {
+                return;
+            }
+            unreserve(footprint, previousFootprint);
+            log.debug("Footprint of session {} changed during admission, retrying", sessionId);
+        }
+    }
+
+    /**
+     * Accounts the growth of a signature session updated in place by status polling. The growth is not limited, as
+     * the data to sign of the signature session has already been admitted and rejecting the signature would fail
+     * a signing already completed by the signer.
+     */
+    public void accountSignatureSessionUpdate(String sessionId, long growth) {
+        if (growth == 0 || !isLimited()) {
+            return;
+        }
+        while (true) {
+            SessionFootprint footprint = sessionSizeLedger.getFootprint(sessionId);
+            if (footprint == null) {
+                return;
+            }
+            SessionFootprint updatedFootprint = footprint.withSignatureSessionSize(footprint.getSignatureSessionSize() + growth);
+            if (sessionSizeLedger.replaceFootprint(sessionId, footprint, updatedFootprint)) {
+                cacheSizes.get(CacheName.SIGNATURE_SESSION).addAndGet(growth);
+                getServiceSize(footprint.getServiceUuid()).addAndGet(growth);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Releases the size accounted for the given session. Sessions not accounted, or already released by another
+     * node, are ignored.
+     */
+    public void release(String sessionId) {
+        if (!isLimited()) {
+            return;
+        }
+        SessionFootprint footprint = sessionSizeLedger.removeFootprint(sessionId);
+        if (footprint == null) {
+            return;
+        }
+        unreserve(footprint, null);
+    }
+
+    @Override
+    public void onSessionExpired(String sessionId) {
+        release(sessionId);
+    }
+
+    static long sizeOf(SignatureSession signatureSession) {
+        long size = sizeOf(signatureSession.getSignature());
+        if (signatureSession.getDataToSign() != null) {
+            size += sizeOf(signatureSession.getDataToSign().getDataToSign());
+        }
+        return size;
+    }
+
+    private boolean isLimited() {
+        return !sessionSizeLimitProperties.getMaxCacheSize().isEmpty()
+                || sessionSizeLimitProperties.getMaxServiceSize() != null
+                || !sessionSizeLimitProperties.getMaxServiceSizeOverrides().isEmpty();
+    }
+
+    /**
+     * Replaces the sizes reserved for the previous version of the session with the sizes of the new version. Sizes
+     * already reserved are given back if a limit would be exceeded.
+     */
+    private void reserve(String sessionId, SessionFootprint footprint, SessionFootprint previousFootprint) {
+        for (int i = 0; i < SIZED_CACHES.size(); i++) {
+            CacheName cacheName = SIZED_CACHES.get(i);
+            DataSize maxCacheSize = sessionSizeLimitProperties.getMaxCacheSize().get(cacheName);
+            if (!tryAdd(cacheSizes.get(cacheName), footprint.size(cacheName) - sizeOf(previousFootprint, cacheName), maxCacheSize)) {
+                unreserveCaches(i, footprint, previousFootprint);
+                log.warn("Session cache {} size limit of {} bytes exceeded by session {}", cacheName, maxCacheSize.toBytes(), sessionId);
+                cacheLimitRejectionCounter.increment();
+                throw new SessionSizeLimitException("Session storage size limit exceeded");
+            }
+        }
+        String serviceUuid = footprint.getServiceUuid();
+        long growth = footprint.total() - (previousFootprint == null ? 0 : previousFootprint.total());
+        DataSize maxServiceSize = sessionSizeLimitProperties.getMaxServiceSizeOverrides()
+                .getOrDefault(serviceUuid, sessionSizeLimitProperties.getMaxServiceSize());
+        if (!tryAdd(getServiceSize(serviceUuid), growth, maxServiceSize)) {
+            unreserveCaches(SIZED_CACHES.size(), footprint, previousFootprint);
+            log.warn("Session size limit of {} bytes exceeded for service {} by session {}", maxServiceSize.toBytes(), serviceUuid, sessionId);
+            serviceLimitRejectionCounter.increment();
+            throw new SessionSizeLimitException("Size of service sessions exceeded");
+        }
+    }
+
+    private void unreserveCaches(int reservedCacheCount, SessionFootprint footprint, SessionFootprint previousFootprint) {
+        for (CacheName cacheName : SIZED_CACHES.subList(0, reservedCacheCount)) {
+            cacheSizes.get(cacheName).addAndGet(sizeOf(previousFootprint, cacheName) - sizeOf(footprint, cacheName));
+        }
+    }
+
+    /**
+     * Gives back all sizes reserved for replacing the previous footprint with the given one. Without a previous
+     * footprint, the given footprint is given back entirely.
+     */
+    private void unreserve(SessionFootprint footprint, SessionFootprint previousFootprint) {
+        unreserveCaches(SIZED_CACHES.size(), footprint, previousFootprint);
+        long previousTotal = previousFootprint == null ? 0 : previousFootprint.total();
+        getServiceSize(footprint.getServiceUuid()).addAndGet(previousTotal - footprint.total());
+    }
+
+    /**
+     * Shrinking and unlimited sizes are always added. Growth is added only if the size stays within the limit.
+     */
+    private static boolean tryAdd(SizeCounter size, long delta, DataSize limit) {
+        if (delta <= 0 || limit == null) {
+            size.addAndGet(delta);
+            return true;
+        }
+        long current;
+        do {
+            current = size.get();
+            if (current + delta > limit.toBytes()) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + delta));
+        return true;
+    }
+
+    private SizeCounter getServiceSize(String serviceUuid) {
+        return serviceSizes.computeIfAbsent(serviceUuid, uuid -> {
+            SizeCounter serviceSize = sessionSizeLedger.getCounter("service-" + uuid);
+            Gauge.builder("siga.session.service.size", serviceSize, SizeCounter::get)
+                    .description("Estimated bytes of container sessions stored for the service")
+                    .tag("service", uuid)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            return serviceSize;
+        });
+    }
+
+    private Counter createRejectionCounter(String limit) {
+        return Counter.builder("siga.session.size.rejected")
+                .description("Number of session updates rejected because a session size limit would be exceeded")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Container bytes are only present when the container has been modified. Otherwise the size accounted for the
+     * previous version is kept, or estimated from the number of stored container pages.
+     */
+    private SessionFootprint measure(Session session, SessionFootprint previousFootprint) {
+        long containerSessionSize = 0;
+        long containerDataSize = 0;
+        if (session instanceof AsicContainerSession asicContainerSession) {
+            if (asicContainerSession.isContainerModified()) {
+                containerDataSize = asicContainerSession.getContainer().length;
+            } else if (previousFootprint != null) {
+                containerDataSize = previousFootprint.getContainerDataSize();
+            } else {
+                containerDataSize = asicContainerSession.getContainerPageCount() * containerPageSize;
+            }
+        } else if (session instanceof HashcodeContainerSession hashcodeContainerSession) {
+            containerSessionSize = sizeOf(hashcodeContainerSession);
+        }
+        long signatureSessionSize = 0;
+        for (SignatureSession signatureSession : session.getSignatureSessions().values()) {
+            signatureSessionSize += sizeOf(signatureSession);
+        }
+        long certificateSessionSize = 0;
+        for (CertificateSession certificateSession : session.getCertificateSessions().values()) {
+            certificateSessionSize += sizeOf(session, certificateSession);
+        }
+        return new SessionFootprint(session.getServiceUuid(), containerSessionSize, containerDataSize, signatureSessionSize,
+                certificateSessionSize);
+    }
+
+    /**
+     * The signing certificate received by certificate choice is stored with the container session, but accounted with
+     * the certificate session that received it.
+     */
+    private static long sizeOf(Session session, CertificateSession certificateSession) {
+        long size = sizeOf(certificateSession.getSessionCode()) + sizeOf(certificateSession.getDocumentNumber());
+        X509Certificate certificate = certificateSession.getDocumentNumber() == null
+                ? null
+                : session.getCertificate(certificateSession.getDocumentNumber());
+        if (certificate != null) {
+            try {
+                size += certificate.getEncoded().length;
+            } catch (CertificateEncodingException e) {
+                log.debug("Unable to estimate size of certificate {}: {}", certificateSession.getDocumentNumber(), e.getMessage());
+            }
+        }
+        return size;
+    }
+
+    private static long sizeOf(HashcodeContainerSession session) {
+        long size = 0;
+        for (HashcodeSignatureWrapper signature : session.getSignatures()) {
+            size += sizeOf(signature.getSignature());
+        }
+        if (session.getDataFiles() != null) {
+            for (HashcodeDataFile dataFile : session.getDataFiles()) {
+                size += sizeOf(dataFile.getFileName()) + sizeOf(dataFile.getFileHashSha256()) + sizeOf(dataFile.getFileHashSha512());
+            }
+        }
+        return size;
+    }
+
+    private static long sizeOf(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static long sizeOf(SessionFootprint footprint, CacheName cacheName) {
+        return footprint == null ? 0 : footprint.size(cacheName);
+    }
+
+}
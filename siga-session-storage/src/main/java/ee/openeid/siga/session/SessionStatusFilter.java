@@ -0,0 +1,16 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.common.session.ProcessingStatus;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Selects signature or certificate sessions by their processing status when searching the {@link SessionStore}.
+ * Filters may be evaluated on the nodes holding the sessions, so they must be serializable.
+ */
+@FunctionalInterface
+public interface SessionStatusFilter extends Serializable {
+
+    boolean test(ProcessingStatus processingStatus, LocalDateTime processingStatusTimestamp, int processingCounter);
+}
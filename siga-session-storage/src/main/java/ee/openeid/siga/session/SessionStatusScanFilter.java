@@ -0,0 +1,37 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.common.session.ProcessingStatus;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.internal.binary.BinaryEnumObjectImpl;
+import org.apache.ignite.lang.IgniteBiPredicate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Matches signature or certificate session entries having a session whose status matches the given filter. Sessions
+ * are read in binary form, so the session classes are not needed on the server nodes.
+ * <p>
+ * NB: This class is loaded into Ignite server nodes via peer class loading.
+ * If possible, avoid making changes in this class and in its dependencies!
+ */
+class SessionStatusScanFilter implements IgniteBiPredicate<String, Map<String, BinaryObject>> {
+    private final SessionStatusFilter filter;
+
+    SessionStatusScanFilter(SessionStatusFilter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean apply(String containerSessionId, Map<String, BinaryObject> sessions) {
+        return sessions.values().stream()
+                .map(s -> (BinaryObject) s.field("sessionStatus"))
+                .anyMatch(sessionStatus -> {
+                    int statusOrdinal = sessionStatus.<BinaryEnumObjectImpl>field("processingStatus").enumOrdinal();
+                    ProcessingStatus processingStatus = ProcessingStatus.values()[statusOrdinal];
+                    LocalDateTime statusTimestamp = sessionStatus.field("processingStatusTimestamp");
+                    int processingCounter = sessionStatus.field("processingCounter");
+                    return filter.test(processingStatus, statusTimestamp, processingCounter);
+                });
+    }
+}
@@ -0,0 +1,62 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.common.session.CertificateSession;
+import ee.openeid.siga.common.session.Session;
+import ee.openeid.siga.common.session.SignatureSession;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Storage of container sessions. Container, signature and certificate sessions of a container are stored separately,
+ * but under the same session ID. Sessions returned by the store are copies, changes to them are only visible to other
+ * callers after being written back to the store.
+ */
+public interface SessionStore {
+
+    /**
+     * Returns the container session with its signature and certificate sessions, or {@code null} if not found.
+     */
+    Session get(String sessionId);
+
+    void put(Session session);
+
+    /**
+     * Writes the container session without its signature and certificate sessions.
+     */
+    void putContainerSession(Session session);
+
+    void putCertificateSessions(String sessionId, Map<String, CertificateSession> certificateSessions);
+
+    /**
+     * Atomically updates a single signature session. The update modifies the given signature session and returns
+     * {@code true} if it should be written. Returns {@code false} if the signature session was not found or not
+     * modified.
+     */
+    boolean updateSignatureSession(String sessionId, String signatureId, Predicate<SignatureSession> update);
+
+    void remove(String sessionId);
+
+    int size();
+
+    /**
+     * Returns the IDs of container sessions having a signature session whose status matches the filter.
+     */
+    List<String> findSessionIdsBySignatureStatus(SessionStatusFilter filter);
+
+    /**
+     * Returns the IDs of container sessions having a certificate session whose status matches the filter.
+     */
+    List<String> findSessionIdsByCertificateStatus(SessionStatusFilter filter);
+
+    /**
+     * Tries to acquire the lock with the given name, waiting at most the given timeout. The lock is shared by all
+     * SiGa nodes using the same sessions.
+     *
+     * @return the acquired lock, or empty if the lock is held by someone else
+     */
+    Optional<SessionLock> tryLock(String name, Duration timeout);
+}
@@ -0,0 +1,21 @@
+package ee.openeid.siga.session.configuration;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "siga.connection-cleanup")
+public class ConnectionCleanupProperties {
+    @NotNull
+    private Duration interval = Duration.ofSeconds(1);
+    @Positive
+    private int batchSize = 500;
+    @Positive
+    private int queueCapacity = 10000;
+}
@@ -1,11 +1,22 @@
 package ee.openeid.siga.session.configuration;
 
+import ee.openeid.siga.session.CacheName;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.Deflater;
 
 @Getter
 @Setter
@@ -17,4 +28,32 @@ public class SessionConfigurationProperties {
     private String configurationLocation;
     @NotBlank(message = "siga.ignite.application-cache-version propery must be set")
     private String applicationCacheVersion;
+    @NotNull
+    private DataSize containerPageSize = DataSize.ofKilobytes(256);
+    @NotNull
+    private Duration staleContainerPageRetention = Duration.ofMinutes(5);
+    private Map<CacheName, @Valid NearCacheConf> nearCache = new EnumMap<>(CacheName.class);
+    @Valid
+    @NotNull
+    private CompressionConf compression = new CompressionConf();
+
+    @Validated
+    @Getter
+    @Setter
+    public static class NearCacheConf {
+        @Positive
+        private int maxSize = 10000;
+    }
+
+    @Validated
+    @Getter
+    @Setter
+    public static class CompressionConf {
+        private boolean enabled;
+        @NotNull
+        private DataSize threshold = DataSize.ofKilobytes(4);
+        @Min(Deflater.NO_COMPRESSION)
+        @Max(Deflater.BEST_COMPRESSION)
+        private int level = Deflater.BEST_SPEED;
+    }
 }
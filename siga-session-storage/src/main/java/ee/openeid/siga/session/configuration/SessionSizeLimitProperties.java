@@ -0,0 +1,20 @@
+package ee.openeid.siga.session.configuration;
+
+import ee.openeid.siga.session.CacheName;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "siga.session-size-limit")
+public class SessionSizeLimitProperties {
+    private Map<CacheName, DataSize> maxCacheSize = new EnumMap<>(CacheName.class);
+    private DataSize maxServiceSize;
+    private Map<String, DataSize> maxServiceSizeOverrides = new HashMap<>();
+}
@@ -0,0 +1,13 @@
+package ee.openeid.siga.session.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "siga.session-store")
+public class SessionStoreProperties {
+    private long maxSize = 10000;
+    private Duration timeToLive = Duration.ofSeconds(300);
+}
@@ -0,0 +1,180 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.auth.model.SigaService;
+import ee.openeid.siga.auth.repository.ConnectionRepository;
+import ee.openeid.siga.auth.repository.ServiceRepository;
+import ee.openeid.siga.session.configuration.ConnectionCleanupProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredConnectionCleanerTest {
+    private static final String SERVICE_UUID = "a7fd7728-a3ea-4975-bfab-f240a67e894f";
+    private static final String OTHER_SERVICE_UUID = "5e8b0f0e-9a0c-4b3f-8f4e-1c7e1e0f2a6d";
+
+    @Mock
+    private ConnectionRepository connectionRepository;
+    @Mock
+    private ServiceRepository serviceRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConnectionCleanupProperties connectionCleanupProperties;
+
+    @BeforeEach
+    void setUp() {
+        connectionCleanupProperties = new ConnectionCleanupProperties();
+        connectionCleanupProperties.setInterval(Duration.ofHours(1));
+    }
+
+    @Test
+    void expiredSessionsOfSameServiceDeletedInSingleStatement() {
+        mockService(1);
+        when(connectionRepository.deleteByServiceIdAndContainerIdIn(1, List.of("container1", "container2"))).thenReturn(2);
+        ExpiredConnectionCleaner connectionCleaner = createConnectionCleaner();
+
+        connectionCleaner.onSessionExpired(sessionId("container1"));
+        connectionCleaner.onSessionExpired(sessionId("container2"));
+        verify(connectionRepository, never()).deleteByServiceIdAndContainerIdIn(anyInt(), any());
+
+        connectionCleaner.flush();
+        verify(serviceRepository, times(1)).findByUuid(SERVICE_UUID);
+        verify(connectionRepository, times(1)).deleteByServiceIdAndContainerIdIn(1, List.of("container1", "container2"));
+        assertEquals(2, meterRegistry.counter("siga.connection.cleanup.deleted").count());
+        assertEquals(0, meterRegistry.get("siga.connection.cleanup.queue.size").gauge().value());
+    }
+
+    @Test
+    void expiredSessionsDeletedWhenBatchSizeReached() {
+        mockService(1);
+        connectionCleanupProperties.setBatchSize(2);
+        ExpiredConnectionCleaner connectionCleaner = createConnectionCleaner();
+
+        connectionCleaner.onSessionExpired(sessionId("container1"));
+        connectionCleaner.onSessionExpired(sessionId("container2"));
+
+        verify(connectionRepository, timeout(5000)).deleteByServiceIdAndContainerIdIn(1, List.of("container1", "container2"));
+    }
+
+    @Test
+    void expiredSessionsDeletedByExpiryThreadWhenQueueFull() {
+        mockService(1);
+        connectionCleanupProperties.setQueueCapacity(2);
+        connectionCleanupProperties.setBatchSize(10);
+        ExpiredConnectionCleaner connectionCleaner = createConnectionCleaner();
+
+        connectionCleaner.onSessionExpired(sessionId("container1"));
+        connectionCleaner.onSessionExpired(sessionId("container2"));
+        connectionCleaner.onSessionExpired(sessionId("container3"));
+
+        verify(connectionRepository).deleteByServiceIdAndContainerIdIn(1, List.of("container1", "container2"));
+        assertEquals(1, meterRegistry.counter("siga.connection.cleanup.backpressure").count());
+        assertEquals(1, meterRegistry.get("siga.connection.cleanup.queue.size").gauge().value());
+    }
+
+    @Test
+    void connectionsNotDeletedForUnknownService() {
+        when(serviceRepository.findByUuid(SERVICE_UUID)).thenReturn(Optional.empty());
+        ExpiredConnectionCleaner connectionCleaner = createConnectionCleaner();
+
+        connectionCleaner.onSessionExpired(sessionId("container1"));
+        connectionCleaner.flush();
+
+        verify(connectionRepository, never()).deleteByServiceIdAndContainerIdIn(anyInt(), any());
+    }
+
+    @Test
+    void invalidSessionIdSkippedAndOthersOfBatchDeleted() {
+        mockService(1);
+        when(connectionRepository.deleteByServiceIdAndContainerIdIn(1, List.of("container1"))).thenReturn(1);
+        ExpiredConnectionCleaner connectionCleaner = createConnectionCleaner();
+
+        connectionCleaner.onSessionExpired("invalid");
+        connectionCleaner.onSessionExpired(sessionId("container1"));
+        connectionCleaner.flush();
+
+        verify(connectionRepository).deleteByServiceIdAndContainerIdIn(1, List.of("container1"));
+        assertEquals(1, meterRegistry.counter("siga.connection.cleanup.deleted").count());
+        assertEquals(1, meterRegistry.counter("siga.connection.cleanup.dropped").count());
+    }
+
+    @Test
+    void failedServiceDeletionRetriedOnNextFlushWithoutAffectingOtherServices() {
+        mockService(1);
+        SigaService otherService = new SigaService();
+        otherService.setId(2);
+        otherService.setUuid(OTHER_SERVICE_UUID);
+        when(serviceRepository.findByUuid(OTHER_SERVICE_UUID)).thenReturn(Optional.of(otherService));
+        when(connectionRepository.deleteByServiceIdAndContainerIdIn(1, List.of("container1")))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenReturn(1);
+        when(connectionRepository.deleteByServiceIdAndContainerIdIn(2, List.of("container2"))).thenReturn(1);
+        ExpiredConnectionCleaner connectionCleaner = createConnectionCleaner();
+
+        connectionCleaner.onSessionExpired(sessionId("container1"));
+        connectionCleaner.onSessionExpired("v1_" + OTHER_SERVICE_UUID + "_container2");
+        connectionCleaner.flush();
+        verify(connectionRepository).deleteByServiceIdAndContainerIdIn(2, List.of("container2"));
+        assertEquals(1, meterRegistry.counter("siga.connection.cleanup.deleted").count());
+
+        connectionCleaner.flush();
+        verify(connectionRepository, times(2)).deleteByServiceIdAndContainerIdIn(1, List.of("container1"));
+        verify(connectionRepository, times(1)).deleteByServiceIdAndContainerIdIn(2, List.of("container2"));
+        assertEquals(2, meterRegistry.counter("siga.connection.cleanup.deleted").count());
+
+        connectionCleaner.flush();
+        verify(connectionRepository, times(2)).deleteByServiceIdAndContainerIdIn(1, List.of("container1"));
+    }
+
+    @Test
+    void fullQueueDrainedWhenDeletionFails() {
+        mockService(1);
+        when(connectionRepository.deleteByServiceIdAndContainerIdIn(anyInt(), any()))
+                .thenThrow(new IllegalStateException("Database unavailable"));
+        connectionCleanupProperties.setQueueCapacity(2);
+        connectionCleanupProperties.setBatchSize(10);
+        ExpiredConnectionCleaner connectionCleaner = createConnectionCleaner();
+
+        connectionCleaner.onSessionExpired(sessionId("container1"));
+        connectionCleaner.onSessionExpired(sessionId("container2"));
+        connectionCleaner.onSessionExpired(sessionId("container3"));
+
+        assertEquals(1, meterRegistry.get("siga.connection.cleanup.queue.size").gauge().value());
+        assertEquals(0, meterRegistry.counter("siga.connection.cleanup.dropped").count());
+    }
+
+    private ExpiredConnectionCleaner createConnectionCleaner() {
+        ExpiredConnectionCleaner connectionCleaner = new ExpiredConnectionCleaner(connectionRepository, serviceRepository,
+                connectionCleanupProperties, meterRegistry);
+        connectionCleaner.start();
+        return connectionCleaner;
+    }
+
+    private void mockService(int serviceId) {
+        SigaService service = new SigaService();
+        service.setId(serviceId);
+        service.setUuid(SERVICE_UUID);
+        when(serviceRepository.findByUuid(SERVICE_UUID)).thenReturn(Optional.of(service));
+    }
+
+    private static String sessionId(String containerId) {
+        return "v1_" + SERVICE_UUID + "_" + containerId;
+    }
+}
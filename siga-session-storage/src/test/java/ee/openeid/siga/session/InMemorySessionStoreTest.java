@@ -0,0 +1,190 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.common.session.AsicContainerSession;
+import ee.openeid.siga.common.session.CertificateSession;
+import ee.openeid.siga.common.session.HashcodeContainerSession;
+import ee.openeid.siga.common.session.ProcessingStatus;
+import ee.openeid.siga.common.session.Session;
+import ee.openeid.siga.common.session.SignatureSession;
+import ee.openeid.siga.session.configuration.SessionStoreProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemorySessionStoreTest {
+    private static final String SESSION_ID = "v1_user_name_container_id";
+
+    private final List<String> expiredSessionIds = new ArrayList<>();
+    private SessionStoreProperties sessionStoreProperties;
+
+    @BeforeEach
+    void setUp() {
+        sessionStoreProperties = new SessionStoreProperties();
+    }
+
+    @Test
+    void sessionNotFound() {
+        assertNull(createSessionStore().get(SESSION_ID));
+    }
+
+    @Test
+    void sessionInsertedAndFound() {
+        SessionStore sessionStore = createSessionStore();
+        Session session = createHashcodeSession();
+        session.addSignatureSession("signature_id", SignatureSession.builder().sessionCode("signature_code").build());
+        session.addCertificateSession("certificate_id", CertificateSession.builder().sessionCode("certificate_code").build());
+        sessionStore.put(session);
+
+        Session foundSession = sessionStore.get(SESSION_ID);
+        assertEquals("Client_name", foundSession.getClientName());
+        assertEquals("signature_code", foundSession.getSignatureSessions().get("signature_id").getSessionCode());
+        assertEquals("certificate_code", foundSession.getCertificateSession("certificate_id").getSessionCode());
+        assertEquals(1, sessionStore.size());
+    }
+
+    @Test
+    void changesToFoundSessionNotVisibleBeforeWrite() {
+        SessionStore sessionStore = createSessionStore();
+        sessionStore.put(createHashcodeSession());
+
+        Session foundSession = sessionStore.get(SESSION_ID);
+        foundSession.addSignatureSession("signature_id", SignatureSession.builder().sessionCode("signature_code").build());
+        assertTrue(sessionStore.get(SESSION_ID).getSignatureSessions().isEmpty());
+
+        sessionStore.put(foundSession);
+        assertFalse(sessionStore.get(SESSION_ID).getSignatureSessions().isEmpty());
+    }
+
+    @Test
+    void signatureSessionUpdated() {
+        SessionStore sessionStore = createSessionStore();
+        Session session = createHashcodeSession();
+        session.addSignatureSession("signature_id", SignatureSession.builder().sessionCode("signature_code").build());
+        sessionStore.put(session);
+
+        assertTrue(sessionStore.updateSignatureSession(SESSION_ID, "signature_id", signatureSession -> {
+            signatureSession.setSessionCode("updated_code");
+            return true;
+        }));
+        assertFalse(sessionStore.updateSignatureSession(SESSION_ID, "unknown_signature_id", signatureSession -> true));
+        assertEquals("updated_code", sessionStore.get(SESSION_ID).getSignatureSessions().get("signature_id").getSessionCode());
+    }
+
+    @Test
+    void asicContainerStoredWithSession() {
+        SessionStore sessionStore = createSessionStore();
+        byte[] container = "container".getBytes(StandardCharsets.UTF_8);
+        sessionStore.put(createAsicSession(container));
+
+        AsicContainerSession foundSession = (AsicContainerSession) sessionStore.get(SESSION_ID);
+        assertFalse(foundSession.isContainerModified());
+        assertArrayEquals(container, foundSession.getContainer());
+    }
+
+    @Test
+    void containerVersionChangedOnlyWhenContainerModified() {
+        SessionStore sessionStore = createSessionStore();
+        sessionStore.put(createAsicSession("container".getBytes(StandardCharsets.UTF_8)));
+        AsicContainerSession foundSession = (AsicContainerSession) sessionStore.get(SESSION_ID);
+        String containerVersion = foundSession.getContainerVersion();
+
+        sessionStore.put(foundSession);
+        assertEquals(containerVersion, ((AsicContainerSession) sessionStore.get(SESSION_ID)).getContainerVersion());
+
+        foundSession.setContainer("modified".getBytes(StandardCharsets.UTF_8));
+        sessionStore.put(foundSession);
+        assertNotEquals(containerVersion, ((AsicContainerSession) sessionStore.get(SESSION_ID)).getContainerVersion());
+    }
+
+    @Test
+    void removedSessionNotFound() {
+        SessionStore sessionStore = createSessionStore();
+        sessionStore.put(createHashcodeSession());
+        sessionStore.remove(SESSION_ID);
+
+        assertNull(sessionStore.get(SESSION_ID));
+        assertEquals(0, sessionStore.size());
+        assertTrue(expiredSessionIds.isEmpty());
+    }
+
+    @Test
+    void expiredSessionNotFoundAndListenerNotified() throws InterruptedException {
+        sessionStoreProperties.setTimeToLive(Duration.ofMillis(50));
+        InMemorySessionStore sessionStore = createSessionStore();
+        sessionStore.put(createHashcodeSession());
+
+        Thread.sleep(100);
+        sessionStore.cleanUp();
+
+        assertNull(sessionStore.get(SESSION_ID));
+        assertEquals(List.of(SESSION_ID), expiredSessionIds);
+    }
+
+    @Test
+    void sessionsFoundBySignatureAndCertificateStatus() {
+        SessionStore sessionStore = createSessionStore();
+        Session session = createHashcodeSession();
+        SignatureSession signatureSession = SignatureSession.builder().build();
+        signatureSession.setPollingStatus(ProcessingStatus.EXCEPTION);
+        session.addSignatureSession("signature_id", signatureSession);
+        session.addCertificateSession("certificate_id", CertificateSession.builder().build());
+        sessionStore.put(session);
+
+        assertEquals(List.of(SESSION_ID), sessionStore.findSessionIdsBySignatureStatus(
+                (processingStatus, timestamp, counter) -> processingStatus == ProcessingStatus.EXCEPTION));
+        assertTrue(sessionStore.findSessionIdsByCertificateStatus(
+                (processingStatus, timestamp, counter) -> processingStatus == ProcessingStatus.EXCEPTION).isEmpty());
+        assertEquals(List.of(SESSION_ID), sessionStore.findSessionIdsByCertificateStatus(
+                (processingStatus, timestamp, counter) -> processingStatus == ProcessingStatus.PROCESSING));
+    }
+
+    @Test
+    void lockNotAcquiredUntilReleased() {
+        SessionStore sessionStore = createSessionStore();
+        Optional<SessionLock> lock = sessionStore.tryLock(SESSION_ID, Duration.ZERO);
+        assertTrue(lock.isPresent());
+        assertTrue(sessionStore.tryLock(SESSION_ID, Duration.ofMillis(20)).isEmpty());
+        assertTrue(sessionStore.tryLock("other_session_id", Duration.ZERO).isPresent());
+
+        lock.get().close();
+        assertTrue(sessionStore.tryLock(SESSION_ID, Duration.ZERO).isPresent());
+    }
+
+    private InMemorySessionStore createSessionStore() {
+        return new InMemorySessionStore(sessionStoreProperties, List.of(expiredSessionIds::add));
+    }
+
+    private Session createHashcodeSession() {
+        return HashcodeContainerSession.builder()
+                .sessionId(SESSION_ID)
+                .clientName("Client_name")
+                .serviceName("Service_name")
+                .serviceUuid("Service_uuid")
+                .dataFiles(new ArrayList<>())
+                .signatures(new ArrayList<>())
+                .build();
+    }
+
+    private AsicContainerSession createAsicSession(byte[] container) {
+        return AsicContainerSession.builder()
+                .sessionId(SESSION_ID)
+                .containerName("container.asice")
+                .clientName("Client_name")
+                .serviceName("Service_name")
+                .serviceUuid("Service_uuid")
+                .container(container)
+                .build();
+    }
+}
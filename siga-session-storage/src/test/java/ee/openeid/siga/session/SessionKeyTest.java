@@ -0,0 +1,39 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.common.exception.InvalidSessionDataException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SessionKeyTest {
+    private static final String SERVICE_UUID = "a7fd7728-a3ea-4975-bfab-f240a67e894f";
+    private static final String CONTAINER_ID = "2d1a8f3e-9b4c-4a6f-8e2d-7c5b3a1f0e9d";
+
+    @Test
+    void sessionIdBuiltFromParts() {
+        SessionKey sessionKey = SessionKey.of("v1", SERVICE_UUID, CONTAINER_ID);
+
+        assertEquals("v1_" + SERVICE_UUID + "_" + CONTAINER_ID, sessionKey.getSessionId());
+        assertEquals(sessionKey.getSessionId(), sessionKey.toString());
+    }
+
+    @Test
+    void sessionIdParsedToParts() {
+        SessionKey sessionKey = SessionKey.parse("v1_" + SERVICE_UUID + "_" + CONTAINER_ID);
+
+        assertEquals("v1", sessionKey.getApplicationCacheVersion());
+        assertEquals(SERVICE_UUID, sessionKey.getServiceUuid());
+        assertEquals(CONTAINER_ID, sessionKey.getContainerId());
+        assertEquals(SessionKey.of("v1", SERVICE_UUID, CONTAINER_ID), sessionKey);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "v1", "v1_service", "v1_service_", "v1_service_container_id"})
+    void invalidSessionIdNotParsed(String sessionId) {
+        InvalidSessionDataException exception = assertThrows(InvalidSessionDataException.class, () -> SessionKey.parse(sessionId));
+        assertEquals("Invalid sessionId: " + sessionId, exception.getMessage());
+    }
+}
@@ -3,11 +3,26 @@ package ee.openeid.siga.session;
 
 import ee.openeid.siga.common.auth.SigaUserDetails;
 import ee.openeid.siga.common.exception.ResourceNotFoundException;
+import ee.openeid.siga.common.exception.SessionSizeLimitException;
+import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
+import ee.openeid.siga.common.model.Signature;
+import ee.openeid.siga.common.model.SignatureHashcodeDataFile;
+import ee.openeid.siga.common.session.AsicContainerSession;
+import ee.openeid.siga.common.session.CertificateSession;
 import ee.openeid.siga.common.session.HashcodeContainerSession;
+import ee.openeid.siga.common.session.ProcessingStatus;
 import ee.openeid.siga.common.session.Session;
+import ee.openeid.siga.common.session.SignatureSession;
 import ee.openeid.siga.common.util.UUIDGenerator;
 import ee.openeid.siga.session.configuration.SessionConfigurationProperties;
+import ee.openeid.siga.session.configuration.SessionSizeLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.ignite.Ignite;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.cache.CachePeekMode;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -17,16 +32,29 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @SpringBootTest(classes = {IgniteConfiguration.class})
 @ActiveProfiles({"test"})
 public class SessionServiceTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
     private SessionService sessionService;
 
     @Autowired
@@ -36,7 +64,8 @@ public class SessionServiceTest {
     public void setUp() {
         SessionConfigurationProperties sessionConfigurationProperties = new SessionConfigurationProperties();
         sessionConfigurationProperties.setApplicationCacheVersion("v1");
-        sessionService = new SessionService(ignite, sessionConfigurationProperties);
+        sessionConfigurationProperties.setContainerPageSize(DataSize.ofBytes(16));
+        sessionService = createSessionService(ignite, sessionConfigurationProperties);
         Authentication authentication = Mockito.mock(Authentication.class);
         SecurityContext securityContext = Mockito.mock(SecurityContext.class);
         when(securityContext.getAuthentication()).thenReturn(authentication);
@@ -64,6 +93,343 @@ public class SessionServiceTest {
         assertEquals("v1_user_name_" + containerId, session.getSessionId());
     }
 
+    @Test
+    public void signatureAndCertificateSessionsInsertedAndFound() {
+        String containerId = UUIDGenerator.generateUUID();
+        Session session = createDefaultSession(containerId);
+        session.addSignatureSession("signature_id", SignatureSession.builder().sessionCode("signature_code").build());
+        session.addCertificateSession("certificate_id", CertificateSession.builder().sessionCode("certificate_code").build());
+        sessionService.update(session);
+
+        Session foundSession = sessionService.getContainer(containerId);
+        assertEquals("signature_code", foundSession.getSignatureSessions().get("signature_id").getSessionCode());
+        assertEquals("certificate_code", foundSession.getCertificateSession("certificate_id").getSessionCode());
+    }
+
+    @Test
+    public void certificateSessionsUpdatedWithoutSignatureSessions() {
+        String containerId = UUIDGenerator.generateUUID();
+        Session session = createDefaultSession(containerId);
+        sessionService.update(session);
+
+        session.addCertificateSession("certificate_id", CertificateSession.builder().sessionCode("certificate_code").build());
+        session.addSignatureSession("signature_id", SignatureSession.builder().sessionCode("signature_code").build());
+        ((HashcodeContainerSession) session).getSignatures().add(HashcodeSignatureWrapper.builder()
+                .generatedSignatureId("signature_id")
+                .signature("<XAdESSignatures></XAdESSignatures>".getBytes(StandardCharsets.UTF_8))
+                .build());
+        sessionService.updateCertificateSessions(session);
+
+        HashcodeContainerSession foundSession = (HashcodeContainerSession) sessionService.getContainer(containerId);
+        assertEquals("certificate_code", foundSession.getCertificateSession("certificate_id").getSessionCode());
+        assertEquals(1, foundSession.getSignatures().size());
+        assertTrue(foundSession.getSignatureSessions().isEmpty());
+    }
+
+    @Test
+    public void certificateSessionsUpdateRejectedOverLimit() {
+        SessionSizeLimitProperties sessionSizeLimitProperties = new SessionSizeLimitProperties();
+        sessionSizeLimitProperties.getMaxCacheSize().put(CacheName.CERTIFICATE_SESSION, DataSize.ofBytes(20));
+        SessionConfigurationProperties sessionConfigurationProperties = new SessionConfigurationProperties();
+        sessionConfigurationProperties.setApplicationCacheVersion("v1");
+        SessionService limitedSessionService = createSessionService(ignite, sessionConfigurationProperties, sessionSizeLimitProperties);
+        String containerId = UUIDGenerator.generateUUID();
+        Session session = createDefaultSession(containerId);
+        limitedSessionService.update(session);
+
+        session.addCertificateSession("certificate_id", CertificateSession.builder().sessionCode("certificate_code").build());
+        limitedSessionService.updateCertificateSessions(session);
+        session.addCertificateSession("other_certificate_id", CertificateSession.builder().sessionCode("certificate_code").build());
+
+        assertThrows(SessionSizeLimitException.class, () -> limitedSessionService.updateCertificateSessions(session));
+        assertEquals(1, limitedSessionService.getContainer(containerId).getCertificateSessions().size());
+    }
+
+    @Test
+    public void signatureSessionUpdatedAtomically() throws InterruptedException {
+        String containerId = UUIDGenerator.generateUUID();
+        Session session = createDefaultSession(containerId);
+        session.addSignatureSession("signature_id", SignatureSession.builder().sessionCode("signature_code").build());
+        session.addSignatureSession("other_signature_id", SignatureSession.builder().sessionCode("other_signature_code").build());
+        sessionService.update(session);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> sessionService.updateSignatureSession(session.getSessionId(), "signature_id", signatureSession -> {
+                signatureSession.setPollingStatus(ProcessingStatus.EXCEPTION);
+                return true;
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        Session foundSession = sessionService.getContainer(containerId);
+        assertEquals(20, foundSession.getSignatureSessions().get("signature_id").getSessionStatus().getProcessingCounter());
+        assertEquals("other_signature_code", foundSession.getSignatureSessions().get("other_signature_id").getSessionCode());
+    }
+
+    @Test
+    public void signatureSessionNotUpdatedWhenNotFoundOrNotModified() {
+        String containerId = UUIDGenerator.generateUUID();
+        Session session = createDefaultSession(containerId);
+        session.addSignatureSession("signature_id", SignatureSession.builder().sessionCode("signature_code").build());
+
+        assertFalse(sessionService.updateSignatureSession(session.getSessionId(), "signature_id", signatureSession -> true));
+        sessionService.update(session);
+        assertFalse(sessionService.updateSignatureSession(session.getSessionId(), "unknown_signature_id", signatureSession -> true));
+        assertFalse(sessionService.updateSignatureSession(session.getSessionId(), "signature_id", signatureSession -> {
+            signatureSession.setSessionCode("changed_code");
+            return false;
+        }));
+        assertEquals("signature_code", sessionService.getContainer(containerId).getSignatureSessions().get("signature_id").getSessionCode());
+    }
+
+    @Test
+    public void removedContainerNotFound() {
+        String containerId = UUIDGenerator.generateUUID();
+        sessionService.update(createDefaultSession(containerId));
+        sessionService.removeByContainerId(containerId);
+        assertThrows(
+                ResourceNotFoundException.class,
+                () -> sessionService.getContainer(containerId)
+        );
+    }
+
+    @Test
+    public void asicContainerStoredInPagesAndLoadedLazily() {
+        String containerId = UUIDGenerator.generateUUID();
+        byte[] container = "container content spanning multiple pages".getBytes(StandardCharsets.UTF_8);
+        sessionService.update(createDefaultAsicSession(containerId, container));
+
+        AsicContainerSession foundSession = (AsicContainerSession) sessionService.getContainer(containerId);
+        assertEquals(3, foundSession.getContainerPageCount());
+        assertFalse(foundSession.isContainerModified());
+        assertArrayEquals(container, foundSession.getContainer());
+    }
+
+    @Test
+    public void asicContainerUpdateReplacesPages() {
+        SessionConfigurationProperties sessionConfigurationProperties = new SessionConfigurationProperties();
+        sessionConfigurationProperties.setApplicationCacheVersion("v1");
+        sessionConfigurationProperties.setContainerPageSize(DataSize.ofBytes(16));
+        sessionConfigurationProperties.setStaleContainerPageRetention(Duration.ZERO);
+        sessionService = createSessionService(ignite, sessionConfigurationProperties);
+        String containerId = UUIDGenerator.generateUUID();
+        sessionService.update(createDefaultAsicSession(containerId, "initial container content".getBytes(StandardCharsets.UTF_8)));
+        int initialPageCount = getContainerDataCacheSize();
+
+        AsicContainerSession session = (AsicContainerSession) sessionService.getContainer(containerId);
+        byte[] updatedContainer = "updated".getBytes(StandardCharsets.UTF_8);
+        session.setContainer(updatedContainer);
+        assertTrue(session.isContainerModified());
+        sessionService.update(session);
+
+        assertArrayEquals(updatedContainer, ((AsicContainerSession) sessionService.getContainer(containerId)).getContainer());
+        assertEquals(initialPageCount - 1, getContainerDataCacheSize());
+    }
+
+    @Test
+    public void asicContainerPagesKeptForReadersOfPreviousVersion() {
+        String containerId = UUIDGenerator.generateUUID();
+        byte[] initialContainer = "initial container content".getBytes(StandardCharsets.UTF_8);
+        sessionService.update(createDefaultAsicSession(containerId, initialContainer));
+        AsicContainerSession reader = (AsicContainerSession) sessionService.getContainer(containerId);
+        int initialPageCount = getContainerDataCacheSize();
+
+        AsicContainerSession writer = (AsicContainerSession) sessionService.getContainer(containerId);
+        writer.setContainer("updated".getBytes(StandardCharsets.UTF_8));
+        sessionService.update(writer);
+
+        assertArrayEquals(initialContainer, reader.getContainer());
+        assertEquals(initialPageCount + 1, getContainerDataCacheSize());
+    }
+
+    @Test
+    public void asicContainerReadWhileReplacedConcurrently() throws InterruptedException {
+        String containerId = UUIDGenerator.generateUUID();
+        sessionService.update(createDefaultAsicSession(containerId, "container content 0".getBytes(StandardCharsets.UTF_8)));
+
+        AtomicInteger failedReads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 1; i <= 20; i++) {
+            byte[] updatedContainer = ("container content " + i).getBytes(StandardCharsets.UTF_8);
+            executor.execute(() -> {
+                try {
+                    AsicContainerSession session = (AsicContainerSession) sessionService.getContainer(containerId);
+                    session.setContainer(updatedContainer);
+                    sessionService.update(session);
+                } catch (ResourceNotFoundException e) {
+                    failedReads.incrementAndGet();
+                }
+            });
+            executor.execute(() -> {
+                try {
+                    AsicContainerSession session = (AsicContainerSession) sessionService.getContainer(containerId);
+                    Thread.sleep(5);
+                    if (!new String(session.getContainer(), StandardCharsets.UTF_8).startsWith("container content ")) {
+                        failedReads.incrementAndGet();
+                    }
+                } catch (ResourceNotFoundException e) {
+                    failedReads.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(0, failedReads.get());
+    }
+
+    @Test
+    public void asicContainerPagesRemovedWithSession() {
+        int initialPageCount = getContainerDataCacheSize();
+        String containerId = UUIDGenerator.generateUUID();
+        sessionService.update(createDefaultAsicSession(containerId, "container content".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(initialPageCount + 2, getContainerDataCacheSize());
+
+        sessionService.removeByContainerId(containerId);
+        assertEquals(initialPageCount, getContainerDataCacheSize());
+    }
+
+    @Test
+    public void compressedAsicContainerStoredInPagesAndLoaded() {
+        SessionService compressingSessionService = createSessionService(ignite, createCompressionProperties());
+        String containerId = UUIDGenerator.generateUUID();
+        byte[] container = "container content ".repeat(10).getBytes(StandardCharsets.UTF_8);
+        compressingSessionService.update(createDefaultAsicSession(containerId, container));
+
+        AsicContainerSession foundSession = (AsicContainerSession) compressingSessionService.getContainer(containerId);
+        assertTrue(foundSession.isContainerCompressed());
+        assertTrue(foundSession.getContainerPageCount() < container.length / 16);
+        assertArrayEquals(container, foundSession.getContainer());
+        assertEquals(1, meterRegistry.summary("siga.session.compression.ratio", "payload", "container").count());
+    }
+
+    @Test
+    public void compressedHashcodeSignatureStoredAndLoaded() {
+        SessionService compressingSessionService = createSessionService(ignite, createCompressionProperties());
+        String containerId = UUIDGenerator.generateUUID();
+        byte[] signature = "<XAdESSignatures></XAdESSignatures>".repeat(10).getBytes(StandardCharsets.UTF_8);
+        HashcodeSignatureWrapper signatureWrapper = new HashcodeSignatureWrapper();
+        signatureWrapper.setGeneratedSignatureId("signature_id");
+        signatureWrapper.setSignature(signature);
+        HashcodeContainerSession session = (HashcodeContainerSession) createDefaultSession(containerId);
+        session.getSignatures().add(signatureWrapper);
+        compressingSessionService.update(session);
+        assertArrayEquals(signature, signatureWrapper.getSignature());
+
+        HashcodeContainerSession foundSession = (HashcodeContainerSession) compressingSessionService.getContainer(containerId);
+        HashcodeSignatureWrapper foundSignatureWrapper = foundSession.getSignatures().get(0);
+        assertFalse(foundSignatureWrapper.isSignatureCompressed());
+        assertEquals("signature_id", foundSignatureWrapper.getGeneratedSignatureId());
+        assertArrayEquals(signature, foundSignatureWrapper.getSignature());
+        assertEquals(1, meterRegistry.summary("siga.session.compression.ratio", "payload", "signature").count());
+    }
+
+    @Test
+    public void compressedHashcodeSignatureKeepsAllFields() {
+        SessionService compressingSessionService = createSessionService(ignite, createCompressionProperties());
+        String containerId = UUIDGenerator.generateUUID();
+        SignatureHashcodeDataFile dataFile = new SignatureHashcodeDataFile();
+        dataFile.setFileName("test.txt");
+        dataFile.setHashAlgo("SHA256");
+        Signature metadata = new Signature();
+        metadata.setId("S0");
+        metadata.setGeneratedSignatureId("signature_id");
+        metadata.setSignerInfo("SERIALNUMBER=PNOEE-38001085718");
+        metadata.setSignatureProfile("LT");
+        HashcodeSignatureWrapper signatureWrapper = HashcodeSignatureWrapper.builder()
+                .generatedSignatureId("signature_id")
+                .signature("<XAdESSignatures></XAdESSignatures>".repeat(10).getBytes(StandardCharsets.UTF_8))
+                .dataFiles(List.of(dataFile))
+                .metadata(metadata)
+                .build();
+        HashcodeContainerSession session = (HashcodeContainerSession) createDefaultSession(containerId);
+        session.getSignatures().add(signatureWrapper);
+        compressingSessionService.update(session);
+
+        HashcodeContainerSession foundSession = (HashcodeContainerSession) compressingSessionService.getContainer(containerId);
+        assertEquals(signatureWrapper, foundSession.getSignatures().get(0));
+    }
+
+    @Test
+    public void payloadBelowThresholdNotCompressed() {
+        SessionConfigurationProperties compressionProperties = createCompressionProperties();
+        compressionProperties.getCompression().setThreshold(DataSize.ofKilobytes(1));
+        SessionService compressingSessionService = createSessionService(ignite, compressionProperties);
+        String containerId = UUIDGenerator.generateUUID();
+        byte[] container = "container content ".repeat(10).getBytes(StandardCharsets.UTF_8);
+        compressingSessionService.update(createDefaultAsicSession(containerId, container));
+
+        AsicContainerSession foundSession = (AsicContainerSession) compressingSessionService.getContainer(containerId);
+        assertFalse(foundSession.isContainerCompressed());
+        assertArrayEquals(container, foundSession.getContainer());
+        assertTrue(meterRegistry.find("siga.session.compression.ratio").meters().isEmpty());
+    }
+
+    @Test
+    public void nearCacheInvalidatedOnUpdateAndRemove() {
+        try (Ignite clientIgnite = startClientNode()) {
+            SessionConfigurationProperties nearCacheProperties = new SessionConfigurationProperties();
+            nearCacheProperties.setApplicationCacheVersion("v1");
+            nearCacheProperties.getNearCache().put(CacheName.CONTAINER_SESSION, new SessionConfigurationProperties.NearCacheConf());
+            nearCacheProperties.getNearCache().put(CacheName.SIGNATURE_SESSION, new SessionConfigurationProperties.NearCacheConf());
+            SessionService nearCacheSessionService = createSessionService(clientIgnite, nearCacheProperties);
+
+            String containerId = UUIDGenerator.generateUUID();
+            Session session = createDefaultSession(containerId);
+            session.addSignatureSession("signature_id", SignatureSession.builder().sessionCode("signature_code").build());
+            sessionService.update(session);
+            assertEquals("signature_code", nearCacheSessionService.getContainer(containerId)
+                    .getSignatureSessions().get("signature_id").getSessionCode());
+
+            sessionService.updateSignatureSession(session.getSessionId(), "signature_id", signatureSession -> {
+                signatureSession.setSessionCode("updated_code");
+                return true;
+            });
+            assertEquals("updated_code", nearCacheSessionService.getContainer(containerId)
+                    .getSignatureSessions().get("signature_id").getSessionCode());
+
+            sessionService.removeByContainerId(containerId);
+            assertThrows(
+                    ResourceNotFoundException.class,
+                    () -> nearCacheSessionService.getContainer(containerId)
+            );
+        }
+    }
+
+    @Test
+    public void sessionSizesAccountedAcrossNodes() {
+        try (Ignite clientIgnite = startClientNode()) {
+            String serviceUuid = UUIDGenerator.generateUUID();
+            SessionSizeLimitProperties sessionSizeLimitProperties = new SessionSizeLimitProperties();
+            sessionSizeLimitProperties.getMaxServiceSizeOverrides().put(serviceUuid, DataSize.ofBytes(150));
+            SessionConfigurationProperties sessionConfigurationProperties = new SessionConfigurationProperties();
+            sessionConfigurationProperties.setApplicationCacheVersion("v1");
+            sessionConfigurationProperties.setContainerPageSize(DataSize.ofBytes(16));
+            SessionService serverSessionService = createSessionService(ignite, sessionConfigurationProperties, sessionSizeLimitProperties);
+            SessionService clientSessionService = createSessionService(clientIgnite, sessionConfigurationProperties, sessionSizeLimitProperties);
+            AsicContainerSession session = createAsicSession(serviceUuid, new byte[100]);
+            serverSessionService.update(session);
+
+            assertThrows(SessionSizeLimitException.class,
+                    () -> clientSessionService.update(createAsicSession(serviceUuid, new byte[100])));
+
+            AsicContainerSession foundSession = (AsicContainerSession) clientSessionService.getContainerBySessionId(session.getSessionId());
+            foundSession.setContainer(new byte[120]);
+            clientSessionService.update(foundSession);
+            assertEquals(120, getServiceSizeGauge(serviceUuid));
+
+            clientSessionService.removeBySessionId(session.getSessionId());
+            assertEquals(0, getServiceSizeGauge(serviceUuid));
+            AsicContainerSession otherSession = createAsicSession(serviceUuid, new byte[100]);
+            serverSessionService.update(otherSession);
+            serverSessionService.removeBySessionId(otherSession.getSessionId());
+        }
+    }
+
     @Test
     public void getMultipleSessionsCacheSize() {
         int initialCacheSize = 0;
@@ -89,6 +455,37 @@ public class SessionServiceTest {
         assertEquals(initialCacheSize, cacheSize);
     }
 
+    private SessionService createSessionService(Ignite ignite, SessionConfigurationProperties sessionConfigurationProperties) {
+        return createSessionService(ignite, sessionConfigurationProperties, new SessionSizeLimitProperties());
+    }
+
+    private SessionService createSessionService(Ignite ignite, SessionConfigurationProperties sessionConfigurationProperties,
+                                                SessionSizeLimitProperties sessionSizeLimitProperties) {
+        SessionPayloadCompressor payloadCompressor = new SessionPayloadCompressor(sessionConfigurationProperties, meterRegistry);
+        SessionSizeLimiter sessionSizeLimiter = new SessionSizeLimiter(sessionSizeLimitProperties,
+                sessionConfigurationProperties, new IgniteSessionSizeLedger(ignite), meterRegistry);
+        return new SessionService(new IgniteSessionStore(ignite, sessionConfigurationProperties, payloadCompressor,
+                Collections.emptyList()), sessionSizeLimiter, sessionConfigurationProperties);
+    }
+
+    private SessionConfigurationProperties createCompressionProperties() {
+        SessionConfigurationProperties sessionConfigurationProperties = new SessionConfigurationProperties();
+        sessionConfigurationProperties.setApplicationCacheVersion("v1");
+        sessionConfigurationProperties.setContainerPageSize(DataSize.ofBytes(16));
+        sessionConfigurationProperties.getCompression().setEnabled(true);
+        sessionConfigurationProperties.getCompression().setThreshold(DataSize.ofBytes(0));
+        return sessionConfigurationProperties;
+    }
+
+    private Ignite startClientNode() {
+        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder()
+                .setAddresses(Collections.singletonList("127.0.0.1:47500..47509"));
+        return Ignition.start(new org.apache.ignite.configuration.IgniteConfiguration()
+                .setIgniteInstanceName("siga-ignite-client")
+                .setClientMode(true)
+                .setDiscoverySpi(new TcpDiscoverySpi().setIpFinder(ipFinder)));
+    }
+
     private SigaUserDetails createDefaultUserDetails() {
         return SigaUserDetails.builder()
                 .clientName("Client_name")
@@ -96,6 +493,36 @@ public class SessionServiceTest {
                 .serviceUuid("Service_uuid").build();
     }
 
+    private double getServiceSizeGauge(String serviceUuid) {
+        return meterRegistry.get("siga.session.service.size").tag("service", serviceUuid).gauge().value();
+    }
+
+    private AsicContainerSession createAsicSession(String serviceUuid, byte[] container) {
+        return AsicContainerSession.builder()
+                .sessionId(SessionKey.of("v1", serviceUuid, UUIDGenerator.generateUUID()).getSessionId())
+                .containerName("container.asice")
+                .clientName("Client_name")
+                .serviceName("Service_name")
+                .serviceUuid(serviceUuid)
+                .container(container)
+                .build();
+    }
+
+    private int getContainerDataCacheSize() {
+        return ignite.cache(CacheName.CONTAINER_DATA.name()).size(CachePeekMode.PRIMARY);
+    }
+
+    private AsicContainerSession createDefaultAsicSession(String containerId, byte[] container) {
+        return AsicContainerSession.builder()
+                .sessionId(sessionService.getSessionId(containerId))
+                .containerName("container.asice")
+                .clientName("Client_name")
+                .serviceName("Service_name")
+                .serviceUuid("Service_uuid")
+                .container(container)
+                .build();
+    }
+
     private Session createDefaultSession(String containerId) {
         String sessionId = sessionService.getSessionId(containerId);
         SigaUserDetails authenticatedUser = (SigaUserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -105,7 +532,7 @@ public class SessionServiceTest {
                 .serviceName(authenticatedUser.getServiceName())
                 .serviceUuid(authenticatedUser.getServiceUuid())
                 .dataFiles(Collections.emptyList())
-                .signatures(Collections.emptyList())
+                .signatures(new ArrayList<>())
                 .build();
     }
 }
@@ -0,0 +1,239 @@
+package ee.openeid.siga.session;
+
+import ee.openeid.siga.common.exception.SessionSizeLimitException;
+import ee.openeid.siga.common.session.AsicContainerSession;
+import ee.openeid.siga.common.session.CertificateSession;
+import ee.openeid.siga.common.session.SignatureSession;
+import ee.openeid.siga.session.configuration.SessionConfigurationProperties;
+import ee.openeid.siga.session.configuration.SessionSizeLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.util.unit.DataSize;
+
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionSizeLimiterTest {
+    private static final String SERVICE_UUID = "a7fd7728-a3ea-4975-bfab-f240a67e894f";
+    private static final String OTHER_SERVICE_UUID = "824dcfe9-5c26-4d76-829a-e6630f434746";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SessionSizeLimitProperties sessionSizeLimitProperties;
+    private SessionSizeLimiter sessionSizeLimiter;
+
+    @BeforeEach
+    void setUp() {
+        sessionSizeLimitProperties = new SessionSizeLimitProperties();
+        sessionSizeLimitProperties.setMaxServiceSize(DataSize.ofMegabytes(1));
+        SessionConfigurationProperties sessionConfigurationProperties = new SessionConfigurationProperties();
+        sessionConfigurationProperties.setContainerPageSize(DataSize.ofBytes(16));
+        sessionSizeLimiter = new SessionSizeLimiter(sessionSizeLimitProperties, sessionConfigurationProperties, meterRegistry);
+    }
+
+    @Test
+    void sessionSizesAccountedPerCacheAndService() {
+        AsicContainerSession session = createSession(SERVICE_UUID, "session1", 100);
+        session.addSignatureSession("signature_id", SignatureSession.builder().signature(new byte[10]).build());
+
+        sessionSizeLimiter.admit(session);
+        sessionSizeLimiter.admit(createSession(OTHER_SERVICE_UUID, "session2", 50));
+
+        assertEquals(150, getCacheSize(CacheName.CONTAINER_DATA));
+        assertEquals(10, getCacheSize(CacheName.SIGNATURE_SESSION));
+        assertEquals(110, getServiceSize(SERVICE_UUID));
+        assertEquals(50, getServiceSize(OTHER_SERVICE_UUID));
+    }
+
+    @Test
+    void sessionUpdateReplacesPreviouslyAccountedSize() {
+        sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 100));
+        sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 40));
+
+        assertEquals(40, getCacheSize(CacheName.CONTAINER_DATA));
+        assertEquals(40, getServiceSize(SERVICE_UUID));
+    }
+
+    @Test
+    void unmodifiedContainerKeepsPreviouslyAccountedSize() {
+        sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 100));
+        AsicContainerSession session = createSession(SERVICE_UUID, "session1", 0);
+        session.setContainerData("version", 3, () -> new byte[0]);
+
+        sessionSizeLimiter.admit(session);
+        assertEquals(100, getCacheSize(CacheName.CONTAINER_DATA));
+
+        sessionSizeLimiter.release("session1");
+        sessionSizeLimiter.admit(session);
+        assertEquals(48, getCacheSize(CacheName.CONTAINER_DATA));
+    }
+
+    @Test
+    void sessionRejectedWhenCacheLimitExceeded() {
+        sessionSizeLimitProperties.getMaxCacheSize().put(CacheName.CONTAINER_DATA, DataSize.ofBytes(120));
+        sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 100));
+
+        SessionSizeLimitException exception = assertThrows(SessionSizeLimitException.class,
+                () -> sessionSizeLimiter.admit(createSession(OTHER_SERVICE_UUID, "session2", 50)));
+
+        assertEquals("Session storage size limit exceeded", exception.getMessage());
+        assertEquals("SESSION_SIZE_LIMIT_EXCEPTION", exception.getErrorCode());
+        assertEquals(100, getCacheSize(CacheName.CONTAINER_DATA));
+        assertEquals(1, meterRegistry.get("siga.session.size.rejected").tag("limit", "cache").counter().count());
+    }
+
+    @Test
+    void sessionRejectedWhenServiceLimitExceeded() {
+        sessionSizeLimitProperties.setMaxServiceSize(DataSize.ofBytes(120));
+        sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 100));
+        sessionSizeLimiter.admit(createSession(OTHER_SERVICE_UUID, "session2", 100));
+
+        SessionSizeLimitException exception = assertThrows(SessionSizeLimitException.class,
+                () -> sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session3", 50)));
+
+        assertEquals("Size of service sessions exceeded", exception.getMessage());
+        assertEquals(100, getServiceSize(SERVICE_UUID));
+        assertEquals(1, meterRegistry.get("siga.session.size.rejected").tag("limit", "service").counter().count());
+    }
+
+    @Test
+    void serviceLimitOverrideApplied() {
+        sessionSizeLimitProperties.setMaxServiceSize(DataSize.ofBytes(120));
+        sessionSizeLimitProperties.getMaxServiceSizeOverrides().put(SERVICE_UUID, DataSize.ofBytes(200));
+
+        assertDoesNotThrow(() -> sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 150)));
+        assertThrows(SessionSizeLimitException.class,
+                () -> sessionSizeLimiter.admit(createSession(OTHER_SERVICE_UUID, "session2", 150)));
+    }
+
+    @Test
+    void shrinkingSessionAdmittedOverLimit() {
+        sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 100));
+        sessionSizeLimitProperties.setMaxServiceSize(DataSize.ofBytes(50));
+
+        assertDoesNotThrow(() -> sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 80)));
+        assertEquals(80, getServiceSize(SERVICE_UUID));
+    }
+
+    @Test
+    void sessionSizesNotAccountedWithoutLimits() {
+        sessionSizeLimitProperties.setMaxServiceSize(null);
+
+        sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 100));
+        sessionSizeLimiter.accountSignatureSessionUpdate("session1", 10);
+
+        assertEquals(0, getCacheSize(CacheName.CONTAINER_DATA));
+        assertEquals(0, getCacheSize(CacheName.SIGNATURE_SESSION));
+    }
+
+    @Test
+    void signatureSessionUpdateAccountedOverLimit() {
+        sessionSizeLimitProperties.setMaxServiceSize(DataSize.ofBytes(100));
+        sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 100));
+
+        sessionSizeLimiter.accountSignatureSessionUpdate("session1", 10);
+        sessionSizeLimiter.accountSignatureSessionUpdate("unknown", 10);
+
+        assertEquals(10, getCacheSize(CacheName.SIGNATURE_SESSION));
+        assertEquals(110, getServiceSize(SERVICE_UUID));
+        sessionSizeLimiter.release("session1");
+        assertEquals(0, getCacheSize(CacheName.SIGNATURE_SESSION));
+        assertEquals(0, getServiceSize(SERVICE_UUID));
+    }
+
+    @Test
+    void certificateSessionsAccountedWithReceivedCertificate() throws CertificateEncodingException {
+        AsicContainerSession session = createSession(SERVICE_UUID, "session1", 0);
+        session.addCertificateSession("certificate_id", CertificateSession.builder().sessionCode("code").build());
+        sessionSizeLimiter.admit(session);
+        assertEquals(4, getCacheSize(CacheName.CERTIFICATE_SESSION));
+
+        X509Certificate certificate = Mockito.mock(X509Certificate.class);
+        Mockito.when(certificate.getEncoded()).thenReturn(new byte[100]);
+        session.getCertificateSession("certificate_id").setDocumentNumber("PNOEE-1");
+        session.addCertificate("PNOEE-1", certificate);
+        sessionSizeLimiter.admit(session);
+
+        assertEquals(111, getCacheSize(CacheName.CERTIFICATE_SESSION));
+        assertEquals(111, getServiceSize(SERVICE_UUID));
+    }
+
+    @Test
+    void rejectedSessionReleasesReservedCacheSizes() {
+        sessionSizeLimitProperties.setMaxServiceSize(DataSize.ofBytes(120));
+        sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 100));
+        AsicContainerSession session = createSession(SERVICE_UUID, "session2", 10);
+        session.addSignatureSession("signature_id", SignatureSession.builder().signature(new byte[20]).build());
+
+        assertThrows(SessionSizeLimitException.class, () -> sessionSizeLimiter.admit(session));
+
+        assertEquals(100, getCacheSize(CacheName.CONTAINER_DATA));
+        assertEquals(0, getCacheSize(CacheName.SIGNATURE_SESSION));
+    }
+
+    @Test
+    void concurrentSessionsAdmittedWithinLimit() throws InterruptedException {
+        sessionSizeLimitProperties.getMaxCacheSize().put(CacheName.CONTAINER_DATA, DataSize.ofBytes(1000));
+        AtomicInteger rejectedSessions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 40; i++) {
+            String sessionId = "session" + i;
+            executor.execute(() -> {
+                try {
+                    sessionSizeLimiter.admit(createSession(SERVICE_UUID, sessionId, 100));
+                } catch (SessionSizeLimitException e) {
+                    rejectedSessions.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(30, rejectedSessions.get());
+        assertEquals(1000, getCacheSize(CacheName.CONTAINER_DATA));
+        assertEquals(1000, getServiceSize(SERVICE_UUID));
+    }
+
+    @Test
+    void expiredSessionReleased() {
+        sessionSizeLimitProperties.setMaxServiceSize(DataSize.ofBytes(120));
+        sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session1", 100));
+
+        sessionSizeLimiter.onSessionExpired("session1");
+        sessionSizeLimiter.onSessionExpired("unknown");
+
+        assertEquals(0, getCacheSize(CacheName.CONTAINER_DATA));
+        assertEquals(0, getServiceSize(SERVICE_UUID));
+        assertDoesNotThrow(() -> sessionSizeLimiter.admit(createSession(SERVICE_UUID, "session2", 100)));
+    }
+
+    private double getCacheSize(CacheName cacheName) {
+        return meterRegistry.get("siga.session.cache.size").tag("cache", cacheName.name()).gauge().value();
+    }
+
+    private double getServiceSize(String serviceUuid) {
+        return meterRegistry.get("siga.session.service.size").tag("service", serviceUuid).gauge().value();
+    }
+
+    private static AsicContainerSession createSession(String serviceUuid, String sessionId, int containerSize) {
+        return AsicContainerSession.builder()
+                .sessionId(sessionId)
+                .containerName("container.asice")
+                .clientName("Client_name")
+                .serviceName("Service_name")
+                .serviceUuid(serviceUuid)
+                .container(new byte[containerSize])
+                .build();
+    }
+}
@@ -0,0 +1,11 @@
+package ee.openeid.siga.service.signature.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "siga.augmentation-validation")
+public class AugmentationValidationProperties {
+    private int poolSize = 4;
+    private int queueCapacity = 16;
+}
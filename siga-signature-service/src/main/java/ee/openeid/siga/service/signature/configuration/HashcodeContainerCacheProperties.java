@@ -0,0 +1,14 @@
+package ee.openeid.siga.service.signature.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "siga.hashcode-container-cache")
+public class HashcodeContainerCacheProperties {
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    private Duration expireAfterAccess = Duration.ofSeconds(60);
+}
@@ -0,0 +1,14 @@
+package ee.openeid.siga.service.signature.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "siga.parsed-container-cache")
+public class ParsedContainerCacheProperties {
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+    private Duration expireAfterAccess = Duration.ofSeconds(60);
+}
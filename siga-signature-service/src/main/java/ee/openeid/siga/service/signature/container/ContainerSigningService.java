@@ -24,7 +24,6 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Delegate;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.ignite.Ignite;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.DataToSign;
 import org.digidoc4j.ServiceType;
@@ -74,7 +73,6 @@ public abstract class ContainerSigningService {
     private MobileIdApiClient mobileIdApiClient;
     private SmartIdApiClient smartIdApiClient;
     private ThreadPoolTaskExecutor taskExecutor;
-    private Ignite ignite;
 
     public DataToSignWrapper createDataToSign(String containerId, SignatureParameters signatureParameters) {
         Session sessionHolder = getSession(containerId);
@@ -16,10 +16,10 @@ import ee.openeid.siga.common.util.UUIDGenerator;
 import ee.openeid.siga.service.signature.mobileid.InitMidSignatureResponse;
 import ee.openeid.siga.service.signature.mobileid.MobileIdSessionStatus;
 import ee.openeid.siga.service.signature.mobileid.MobileIdStatusResponse;
+import ee.openeid.siga.session.SessionLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.EnumUtils;
-import org.apache.ignite.IgniteSemaphore;
 import org.digidoc4j.DataToSign;
 import org.digidoc4j.Signature;
 import org.digidoc4j.SignatureParameters;
@@ -28,8 +28,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.security.cert.X509Certificate;
 import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
 import static ee.openeid.siga.common.exception.ErrorResponseCode.INTERNAL_SERVER_ERROR;
 import static ee.openeid.siga.common.model.SigningType.MOBILE_ID;
@@ -118,20 +118,20 @@ public class MobileIdSigningDelegate {
 
     public void pollMobileIdSignatureStatus(String sessionId, String signatureId, Duration pollingDelay) {
         Runnable pollingRunnable = () -> {
-            // If semaphore is not acquired it will be re-processed by SessionStatusReprocessingService
-            IgniteSemaphore semaphore = containerSigningService.getIgnite().semaphore(signatureId, 1, true, true);
-            if (semaphore.tryAcquire()) {
-                try (semaphore) {
+            // If lock is not acquired it will be re-processed by SessionStatusReprocessingService
+            Optional<SessionLock> lock = containerSigningService.getSessionService().tryLock(signatureId, Duration.ZERO);
+            if (lock.isPresent()) {
+                try (SessionLock signatureLock = lock.get()) {
                     pollSignatureStatus(sessionId, signatureId);
                 } catch (Exception ex) {
                     setPollingException(sessionId, signatureId, ex);
                 } finally {
-                    // Semaphore release conditions 1) Normal execution 2) Exception occurs 3) Ignite node leaves topology
+                    // Lock release conditions 1) Normal execution 2) Exception occurs 3) Ignite node leaves topology
                     containerSigningService.getSigaEventLogger().logEvents();
                     log.debug("Status polling unlocked for signature id: {}", signatureId);
                 }
             } else {
-                log.debug("Status polling semaphore not acquired for signature id: {}", signatureId);
+                log.debug("Status polling lock not acquired for signature id: {}", signatureId);
             }
         };
         DelegatingSecurityContextRunnable delegatingRunnable = new DelegatingSecurityContextRunnable(pollingRunnable);
@@ -150,47 +150,40 @@ public class MobileIdSigningDelegate {
         String sessionCode = signatureSession.getSessionCode();
         MobileIdStatusResponse statusResponse = containerSigningService.getMobileIdApiClient().getSignatureStatus(relyingPartyInfo, sessionCode);
 
-        try (IgniteSemaphore containerSemaphore = containerSigningService.getIgnite().semaphore(sessionId, 1, true, true)) { // TODO: SIGA-424
-            if (containerSemaphore.tryAcquire(5, TimeUnit.SECONDS)) {
-                processMobileIdStatusResponse(sessionId, signatureId, statusResponse);
-            } else {
-                log.error("Unprocessed MobileId signature status response due to SIGA-424. Container session id: {}, Signature session id: {}",
-                        sessionId, signatureId);
-            }
-        }
+        processMobileIdStatusResponse(sessionId, signatureId, statusResponse);
     }
 
     private void processMobileIdStatusResponse(String sessionId, String signatureId, MobileIdStatusResponse mobileIdStatusResponse) {
         log.debug("Processing MobileId response for signature: {}", signatureId);
-        Session session = containerSigningService.getSessionService().getContainerBySessionId(sessionId);
-        if (session == null) {
-            log.warn("Unable to process signature status response. Container session expired: {}", sessionId);
-            return;
-        }
-        SignatureSession signatureSession = session.getSignatureSession(signatureId);
-        if (signatureSession != null && signatureSession.getDataToSign() != null) {
+        boolean updated = containerSigningService.getSessionService().updateSignatureSession(sessionId, signatureId, signatureSession -> {
+            if (signatureSession.getDataToSign() == null) {
+                return false;
+            }
             signatureSession.setSignature(mobileIdStatusResponse.getSignature());
             signatureSession.setPollingStatus(RESULT);
             signatureSession.getSessionStatus().setStatusError(null);
             MobileIdSessionStatus mobileIdSessionStatus = mobileIdStatusResponse.getStatus();
             SessionStatus sessionStatus = signatureSession.getSessionStatus();
             sessionStatus.setStatus(mobileIdSessionStatus.name());
-            containerSigningService.getSessionService().update(session);
+            return true;
+        });
+        if (!updated) {
+            log.warn("Signature session expired! Container session id: {}, Signature session id: {}", sessionId, signatureId);
         }
     }
 
     private void setPollingException(String sessionId, String signatureId, Exception ex) {
         log.error("MobileId status polling exception. Session id: {}, Signature id: {}",
                 sessionId, signatureId, ex);
-        Session session = containerSigningService.getSessionService().getContainerBySessionId(sessionId);
-        SignatureSession signatureSession = session.getSignatureSession(signatureId);
-        SessionStatus sessionStatus = signatureSession.getSessionStatus();
-        sessionStatus.setProcessingStatus(EXCEPTION);
-        sessionStatus.setStatusError(StatusError.builder()
-                .errorCode(INTERNAL_SERVER_ERROR.name()) // TODO: Exception to error code map
-                .errorMessage(ex.getMessage())
-                .build());
-        containerSigningService.getSessionService().update(session);
+        containerSigningService.getSessionService().updateSignatureSession(sessionId, signatureId, signatureSession -> {
+            SessionStatus sessionStatus = signatureSession.getSessionStatus();
+            sessionStatus.setProcessingStatus(EXCEPTION);
+            sessionStatus.setStatusError(StatusError.builder()
+                    .errorCode(INTERNAL_SERVER_ERROR.name()) // TODO: Exception to error code map
+                    .errorMessage(ex.getMessage())
+                    .build());
+            return true;
+        });
     }
 
     private void ensureSigningTypeIsMobileId(SignatureSession signatureSession) {
@@ -18,11 +18,11 @@ import ee.openeid.siga.common.util.UUIDGenerator;
 import ee.openeid.siga.service.signature.smartid.InitSmartIdSignatureResponse;
 import ee.openeid.siga.service.signature.smartid.SmartIdSessionStatus;
 import ee.openeid.siga.service.signature.smartid.SmartIdStatusResponse;
+import ee.openeid.siga.session.SessionLock;
 import ee.sk.smartid.SmartIdCertificate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.EnumUtils;
-import org.apache.ignite.IgniteSemaphore;
 import org.digidoc4j.DataToSign;
 import org.digidoc4j.Signature;
 import org.digidoc4j.SignatureParameters;
@@ -31,8 +31,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.security.cert.X509Certificate;
 import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
 import static ee.openeid.siga.common.exception.ErrorResponseCode.INTERNAL_SERVER_ERROR;
 import static ee.openeid.siga.common.exception.ErrorResponseCode.SMARTID_EXCEPTION;
@@ -46,6 +46,8 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 @Slf4j
 @RequiredArgsConstructor
 public class SmartIdSigningDelegate {
+    private static final Duration CONTAINER_LOCK_TIMEOUT = Duration.ofSeconds(5);
+
     private final ContainerSigningService containerSigningService;
 
     public static RelyingPartyInfo getRelyingPartyInfo() {
@@ -119,7 +121,7 @@ public class SmartIdSigningDelegate {
         StatusError statusError = sessionStatus.getStatusError();
         if (sessionStatus.getProcessingStatus() == RESULT) {
             session.removeCertificateSession(certificateId);
-            containerSigningService.getSessionService().update(session);
+            containerSigningService.getSessionService().updateCertificateSessions(session);
             return CertificateStatus.builder()
                     .status(status)
                     .documentNumber(certificateSession.getDocumentNumber())
@@ -140,20 +142,20 @@ public class SmartIdSigningDelegate {
 
     public void pollSmartIdCertificateStatus(String sessionId, String certificateId, Duration pollingDelay) {
         Runnable pollingRunnable = () -> {
-            // If semaphore is not acquired it will be re-processed by SessionStatusReprocessingService
-            IgniteSemaphore semaphore = containerSigningService.getIgnite().semaphore(certificateId, 1, true, true);
-            if (semaphore.tryAcquire()) {
-                try (semaphore) {
+            // If lock is not acquired it will be re-processed by SessionStatusReprocessingService
+            Optional<SessionLock> lock = containerSigningService.getSessionService().tryLock(certificateId, Duration.ZERO);
+            if (lock.isPresent()) {
+                try (SessionLock certificateLock = lock.get()) {
                     pollCertificateStatus(sessionId, certificateId);
                 } catch (Exception ex) {
                     setPollingException(sessionId, certificateId, ex);
                 } finally {
-                    // Semaphore release conditions 1) Normal execution 2) Exception occurs 3) Ignite node leaves topology
+                    // Lock release conditions 1) Normal execution 2) Exception occurs 3) Ignite node leaves topology
                     containerSigningService.getSigaEventLogger().logEvents();
                     log.debug("Status polling unlocked for certificate id: {}", certificateId);
                 }
             } else {
-                log.debug("Status polling semaphore not acquired for certificate id: {}", certificateId);
+                log.debug("Status polling lock not acquired for certificate id: {}", certificateId);
             }
         };
         DelegatingSecurityContextRunnable delegatingRunnable = new DelegatingSecurityContextRunnable(pollingRunnable);
@@ -168,13 +170,14 @@ public class SmartIdSigningDelegate {
         SmartIdStatusResponse statusResponse = containerSigningService.getSmartIdApiClient()
                 .getCertificateStatus(relyingPartyInfo, certificateSession.getSessionCode());
 
-        try (IgniteSemaphore containerSemaphore = containerSigningService.getIgnite().semaphore(sessionId, 1, true, true)) { // TODO: SIGA-424
-            if (containerSemaphore.tryAcquire(5, TimeUnit.SECONDS)) {
+        Optional<SessionLock> lock = containerSigningService.getSessionService().tryLock(sessionId, CONTAINER_LOCK_TIMEOUT); // TODO: SIGA-424
+        if (lock.isPresent()) {
+            try (SessionLock containerLock = lock.get()) {
                 processSmartIdCertificateStatusResponse(sessionId, certificateId, statusResponse);
-            } else {
-                log.error("Unprocessed SmartId certificate status response due to SIGA-424. Container session id: {}, Certificate session id: {}",
-                        sessionId, certificateId);
             }
+        } else {
+            log.error("Unprocessed SmartId certificate status response due to SIGA-424. Container session id: {}, Certificate session id: {}",
+                    sessionId, certificateId);
         }
     }
 
@@ -199,7 +202,7 @@ public class SmartIdSigningDelegate {
                 }
             }
             sessionStatus.setStatus(statusResponse.getStatus().getSigaCertificateMessage());
-            containerSigningService.getSessionService().update(session);
+            containerSigningService.getSessionService().updateCertificateSessions(session);
         } else {
             log.warn("Certificate session expired! Container session id: {}, Certificate session id: {}", sessionId, certificateId);
         }
@@ -239,20 +242,20 @@ public class SmartIdSigningDelegate {
 
     public void pollSmartIdSignatureStatus(String sessionId, String signatureId, Duration pollingDelay) {
         Runnable pollingRunnable = () -> {
-            // If semaphore is not acquired it will be re-processed by SessionStatusReprocessingService
-            IgniteSemaphore signatureSemaphore = containerSigningService.getIgnite().semaphore(signatureId, 1, true, true);
-            if (signatureSemaphore.tryAcquire()) {
-                try (signatureSemaphore) {
+            // If lock is not acquired it will be re-processed by SessionStatusReprocessingService
+            Optional<SessionLock> lock = containerSigningService.getSessionService().tryLock(signatureId, Duration.ZERO);
+            if (lock.isPresent()) {
+                try (SessionLock signatureLock = lock.get()) {
                     pollSignatureStatus(sessionId, signatureId);
                 } catch (Exception ex) {
                     setPollingException(sessionId, signatureId, ex);
                 } finally {
-                    // Semaphore release conditions 1) Normal execution 2) Exception occurs 3) Ignite node leaves topology
+                    // Lock release conditions 1) Normal execution 2) Exception occurs 3) Ignite node leaves topology
                     containerSigningService.getSigaEventLogger().logEvents();
                     log.debug("Status polling unlocked for signature id: {}", signatureId);
                 }
             } else {
-                log.debug("Status polling semaphore not acquired for signature id: {}", signatureId);
+                log.debug("Status polling lock not acquired for signature id: {}", signatureId);
             }
         };
         DelegatingSecurityContextRunnable delegatingRunnable = new DelegatingSecurityContextRunnable(pollingRunnable);
@@ -271,33 +274,24 @@ public class SmartIdSigningDelegate {
         String sessionCode = signatureSession.getSessionCode();
         SmartIdStatusResponse statusResponse = containerSigningService.getSmartIdApiClient().getSignatureStatus(relyingPartyInfo, sessionCode);
 
-        try (IgniteSemaphore containerSemaphore = containerSigningService.getIgnite().semaphore(sessionId, 1, true, true)) { // TODO: SIGA-424
-            if (containerSemaphore.tryAcquire(5, TimeUnit.SECONDS)) {
-                processSmartIdSignatureStatusResponse(sessionId, signatureId, statusResponse);
-            } else {
-                log.error("Unprocessed SmartId signature status response due to SIGA-424. Container session id: {}, Signature session id: {}",
-                        sessionId, signatureId);
-            }
-        }
+        processSmartIdSignatureStatusResponse(sessionId, signatureId, statusResponse);
     }
 
     private void processSmartIdSignatureStatusResponse(String sessionId, String signatureId, SmartIdStatusResponse sessionResponse) {
         log.debug("Processing response for signature: {}", signatureId);
-        Session session = containerSigningService.getSessionService().getContainerBySessionId(sessionId);
-        if (session == null) {
-            log.warn("Unable to process signature status response. Container session expired: {}", sessionId);
-            return;
-        }
-        SignatureSession signatureSession = session.getSignatureSession(signatureId);
-        if (signatureSession != null && signatureSession.getDataToSign() != null) {
+        boolean updated = containerSigningService.getSessionService().updateSignatureSession(sessionId, signatureId, signatureSession -> {
+            if (signatureSession.getDataToSign() == null) {
+                return false;
+            }
             signatureSession.setPollingStatus(RESULT);
             signatureSession.setSignature(sessionResponse.getSignature());
             SmartIdSessionStatus sidStatus = sessionResponse.getStatus();
             SessionStatus sessionStatus = signatureSession.getSessionStatus();
             sessionStatus.setStatus(sidStatus.getSigaSigningMessage());
             sessionStatus.setStatusError(null);
-            containerSigningService.getSessionService().update(session);
-        } else {
+            return true;
+        });
+        if (!updated) {
             log.warn("Signature session expired! Container session id: {}, Signature session id: {}", sessionId, signatureId);
         }
     }
@@ -305,15 +299,15 @@ public class SmartIdSigningDelegate {
     private void setPollingException(String sessionId, String statusSessionId, Exception ex) {
         log.error("SmartId status polling exception. Container session id: {}, Status session id: {}",
                 sessionId, statusSessionId, ex);
-        Session session = containerSigningService.getSessionService().getContainerBySessionId(sessionId);
-        SignatureSession signatureSession = session.getSignatureSession(statusSessionId);
-        SessionStatus sessionStatus = signatureSession.getSessionStatus();
-        sessionStatus.setProcessingStatus(EXCEPTION);
-        sessionStatus.setStatusError(StatusError.builder()
-                .errorCode(INTERNAL_SERVER_ERROR.name()) // TODO: Exception to error code map
-                .errorMessage(ex.getMessage())
-                .build());
-        containerSigningService.getSessionService().update(session);
+        containerSigningService.getSessionService().updateSignatureSession(sessionId, statusSessionId, signatureSession -> {
+            SessionStatus sessionStatus = signatureSession.getSessionStatus();
+            sessionStatus.setProcessingStatus(EXCEPTION);
+            sessionStatus.setStatusError(StatusError.builder()
+                    .errorCode(INTERNAL_SERVER_ERROR.name()) // TODO: Exception to error code map
+                    .errorMessage(ex.getMessage())
+                    .build());
+            return true;
+        });
     }
 
     private void ensureSigningTypeIsSmartId(SignatureSession signatureSession) {
@@ -6,20 +6,20 @@ import ee.openeid.siga.common.exception.InvalidContainerException;
 import ee.openeid.siga.common.exception.InvalidSessionDataException;
 import ee.openeid.siga.common.exception.ResourceNotFoundException;
 import ee.openeid.siga.common.model.ContainerInfo;
-import ee.openeid.siga.common.model.DataFile;
 import ee.openeid.siga.common.model.Result;
 import ee.openeid.siga.common.model.Signature;
+import ee.openeid.siga.common.session.AsicContainerIndex;
 import ee.openeid.siga.common.session.AsicContainerSession;
 import ee.openeid.siga.common.session.Session;
 import ee.openeid.siga.common.util.UUIDGenerator;
 import ee.openeid.siga.service.signature.session.AsicSessionHolder;
 import ee.openeid.siga.service.signature.util.ContainerUtil;
 import ee.openeid.siga.session.SessionService;
-import eu.europa.esig.dss.enumerations.MimeType;
-import eu.europa.esig.dss.model.DSSDocument;
-import eu.europa.esig.dss.model.InMemoryDocument;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.Container;
 import org.digidoc4j.ContainerBuilder;
@@ -31,15 +31,16 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import static org.digidoc4j.Constant.ASICE_CONTAINER_TYPE;
 import static org.digidoc4j.Constant.ASICS_CONTAINER_TYPE;
@@ -56,16 +57,12 @@ public class AsicContainerService implements AsicSessionHolder {
     private final SessionService sessionService;
     private final AsicContainerAugmentationService asicContainerAugmentationService;
     private final Configuration configuration;
+    private final ParsedContainerCache parsedContainerCache;
 
-    public String createContainer(String containerName, List<DataFile> dataFiles) {
+    public String createContainer(String containerName, List<org.digidoc4j.DataFile> dataFiles) {
         ContainerBuilder containerBuilder = ContainerBuilder.
                 aContainer(ASICE).withConfiguration(configuration);
-
-        dataFiles.forEach(dataFile -> containerBuilder.withDataFile(
-                new ByteArrayInputStream(Base64.getDecoder().decode(dataFile.getContent().getBytes())),
-                dataFile.getFileName(),
-                MimeType.fromFileName(dataFile.getFileName()).getMimeTypeString()
-        ));
+        dataFiles.forEach(containerBuilder::withDataFile);
 
         Container container = containerBuilder.build();
         String containerId = generateContainerId();
@@ -74,10 +71,10 @@ public class AsicContainerService implements AsicSessionHolder {
         return containerId;
     }
 
-    public String uploadContainer(String containerName, String base64container) {
+    public String uploadContainer(String containerName, InputStream containerStream) {
         Container container;
         try {
-            container = ContainerUtil.createContainer(Base64.getDecoder().decode(base64container.getBytes()), configuration);
+            container = ContainerUtil.createContainer(containerStream, configuration);
         } catch (org.digidoc4j.exceptions.DuplicateDataFileException e) {
             throw new DuplicateDataFileException(e.getMessage());
         } catch (Exception e) {
@@ -96,23 +93,13 @@ public class AsicContainerService implements AsicSessionHolder {
 
         ContainerInfo containerInfo = new ContainerInfo();
         containerInfo.setContainerName(sessionHolder.getContainerName());
-        containerInfo.setContainer(new String(Base64.getEncoder().encode(sessionHolder.getContainer())));
+        containerInfo.setContainer(sessionHolder.getContainer());
         return containerInfo;
     }
 
     public List<Signature> getSignatures(String containerId) {
         AsicContainerSession sessionHolder = getSessionHolder(containerId);
-        Container container = createContainerFromSession(sessionHolder);
-
-        List<Signature> signatures = new ArrayList<>();
-        getSignaturesFromContainerSpecificDepth(container)
-                .forEach(sessionSignature -> sessionHolder.getSignatureIdHolder()
-                        .forEach((generatedSignatureId, hashcode) -> {
-                            if (Arrays.hashCode(sessionSignature.getAdESSignature()) == hashcode) {
-                                signatures.add(transformSignature(generatedSignatureId, sessionSignature));
-                            }
-                        }));
-        return signatures;
+        return new ArrayList<>(parsedContainerCache.get(sessionHolder).getSignatures());
     }
 
     public List<Timestamp> getTimestamps(String containerId) {
@@ -123,11 +110,11 @@ public class AsicContainerService implements AsicSessionHolder {
 
     public org.digidoc4j.Signature getSignature(String containerId, String signatureId) {
         AsicContainerSession sessionHolder = getSessionHolder(containerId);
-        Integer signatureHashCode = sessionHolder.getSignatureIdHolder().get(signatureId);
+        String signatureKey = sessionHolder.getSignatureIdHolder().get(signatureId);
         Container container = createContainerFromSession(sessionHolder);
 
         Optional<org.digidoc4j.Signature> digidoc4jSignature = container.getSignatures().stream()
-                .filter(signature -> signatureHashCode == Arrays.hashCode(signature.getAdESSignature()))
+                .filter(signature -> ContainerUtil.hasSignatureKey(signature, signatureKey))
                 .findAny();
 
         if (digidoc4jSignature.isEmpty()) {
@@ -136,21 +123,59 @@ public class AsicContainerService implements AsicSessionHolder {
         return digidoc4jSignature.get();
     }
 
-    public List<DataFile> getDataFiles(String containerId) {
+    /**
+     * Locates the data files of the container, so that a missing session or an unreadable container is reported before
+     * any data file content is read. Data files listed in the container index are read from the entries of the stored
+     * container, data files of other containers are read from the parsed container.
+     */
+    public DataFileContents openDataFiles(String containerId) throws IOException {
         AsicContainerSession sessionHolder = getSessionHolder(containerId);
+        if (sessionHolder.getContainerIndex() != null) {
+            DataFileContents indexedDataFiles = openIndexedDataFiles(sessionHolder);
+            if (indexedDataFiles != null) {
+                return indexedDataFiles;
+            }
+        }
         Container container = createContainerFromSession(sessionHolder);
-
         List<org.digidoc4j.DataFile> dataFiles = getDataFilesFromContainerSpecificDepth(container);
-        return dataFiles.stream().map(AsicContainerService::transformDataFile).collect(Collectors.toList());
+        return consumer -> {
+            for (org.digidoc4j.DataFile dataFile : dataFiles) {
+                try (InputStream content = dataFile.getStream()) {
+                    consumer.accept(dataFile.getName(), content);
+                }
+            }
+        };
+    }
+
+    /**
+     * Data files of composite containers are not entries of the stored container, so these are left for the parsed
+     * container, as are entries that cannot be read.
+     */
+    private static DataFileContents openIndexedDataFiles(AsicContainerSession sessionHolder) throws IOException {
+        ZipFile zipFile = new ZipFile(new SeekableInMemoryByteChannel(sessionHolder.getContainer()));
+        try {
+            List<ZipArchiveEntry> entries = new ArrayList<>();
+            for (AsicContainerIndex.DataFileEntry dataFile : sessionHolder.getContainerIndex().getDataFiles()) {
+                ZipArchiveEntry entry = zipFile.getEntry(dataFile.getFileName());
+                if (entry == null || !zipFile.canReadEntryData(entry)) {
+                    zipFile.close();
+                    return null;
+                }
+                entries.add(entry);
+            }
+            return new ContainerEntryContents(zipFile, entries);
+        } catch (IOException | RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
     }
 
-    public Result addDataFiles(String containerId, List<DataFile> dataFiles) {
+    public Result addDataFiles(String containerId, List<org.digidoc4j.DataFile> dataFiles) {
         AsicContainerSession sessionHolder = getSessionHolder(containerId);
         Container container = createContainerFromSession(sessionHolder);
         validateIfSessionMutable(container);
 
         dataFiles.forEach(dataFile -> addDataFileToContainer(container, dataFile));
-
         updateContainerInSession(sessionHolder, container);
         return Result.OK;
     }
@@ -190,12 +215,17 @@ public class AsicContainerService implements AsicSessionHolder {
         return Result.OK;
     }
 
+    /**
+     * Parses a new container from the session for the caller. Parsed containers are not thread-safe, so these are never
+     * shared between requests. Use {@link ParsedContainerCache} for the container metadata that is only read.
+     */
     Container createContainerFromSession(AsicContainerSession sessionHolder) {
         return ContainerUtil.createContainer(sessionHolder.getContainer(), configuration);
     }
 
     public String closeSession(String containerId) {
         sessionService.removeByContainerId(containerId);
+        parsedContainerCache.invalidate(sessionService.getSessionId(containerId));
         return Result.OK.name();
     }
 
@@ -226,7 +256,7 @@ public class AsicContainerService implements AsicSessionHolder {
 
     private static void addSignaturesToSession(Container container, AsicContainerSession containerSession) {
         for (org.digidoc4j.Signature signature: container.getSignatures()) {
-            containerSession.addSignatureId(signature.getUniqueId(), Arrays.hashCode(signature.getAdESSignature()));
+            containerSession.addSignatureId(signature.getUniqueId(), ContainerUtil.getSignatureKey(signature));
         }
     }
 
@@ -234,17 +264,16 @@ public class AsicContainerService implements AsicSessionHolder {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         container.save(outputStream);
         sessionHolder.setContainer(outputStream.toByteArray());
+        sessionHolder.setContainerIndex(createContainerIndex(container, sessionHolder));
         sessionService.update(sessionHolder);
+        parsedContainerCache.invalidate(sessionHolder.getSessionId());
     }
 
-    private static void addDataFileToContainer(Container container, DataFile dataFile) {
+    private static void addDataFileToContainer(Container container, org.digidoc4j.DataFile dataFile) {
         try {
-            org.digidoc4j.DataFile digidoc4jDataFile = new org.digidoc4j.DataFile();
-            DSSDocument dssDocument = new InMemoryDocument(Base64.getDecoder().decode(dataFile.getContent().getBytes()), dataFile.getFileName());
-            digidoc4jDataFile.setDocument(dssDocument);
-            container.addDataFile(digidoc4jDataFile);
+            container.addDataFile(dataFile);
         } catch (org.digidoc4j.exceptions.DuplicateDataFileException e) {
-            throw new DuplicateDataFileException("Duplicate data files not allowed: " + dataFile.getFileName());
+            throw new DuplicateDataFileException("Duplicate data files not allowed: " + dataFile.getName());
         } catch (DigiDoc4JException e) {
             log.error("Cannot add datafile to specified container: ", e);
             throw new InvalidSessionDataException("Cannot add datafile to specified container.");
@@ -260,7 +289,7 @@ public class AsicContainerService implements AsicSessionHolder {
         }
     }
 
-    private static Signature transformSignature(String generatedSignatureId, org.digidoc4j.Signature dd4jSignature) {
+    static Signature transformSignature(String generatedSignatureId, org.digidoc4j.Signature dd4jSignature) {
         Signature signature = new Signature();
         signature.setGeneratedSignatureId(generatedSignatureId);
         signature.setId(dd4jSignature.getId());
@@ -269,13 +298,6 @@ public class AsicContainerService implements AsicSessionHolder {
         return signature;
     }
 
-    private static DataFile transformDataFile(org.digidoc4j.DataFile digidoc4jDataFile) {
-        DataFile dataFile = new DataFile();
-        dataFile.setFileName(digidoc4jDataFile.getName());
-        dataFile.setContent(new String(Base64.getEncoder().encode(digidoc4jDataFile.getBytes())));
-        return dataFile;
-    }
-
     private AsicContainerSession transformContainerToSession(String containerName, String containerId, Container container) {
         String sessionId = sessionService.getSessionId(containerId);
         SigaUserDetails authenticatedUser = (SigaUserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -290,11 +312,68 @@ public class AsicContainerService implements AsicSessionHolder {
                 .container(outputStream.toByteArray())
                 .build();
         container.getSignatures().forEach(signature ->
-                sessionHolder.addSignatureId(UUIDGenerator.generateUUID(), Arrays.hashCode(signature.getAdESSignature()))
+                sessionHolder.addSignatureId(UUIDGenerator.generateUUID(), ContainerUtil.getSignatureKey(signature))
         );
+        sessionHolder.setContainerIndex(createContainerIndex(container, sessionHolder));
         return sessionHolder;
     }
 
+    /**
+     * Collects the metadata of the container to be stored with the session. The index is only an optimization, so
+     * if the metadata cannot be read, the session is stored without it and the container is parsed on every read.
+     */
+    static AsicContainerIndex createContainerIndex(Container container, AsicContainerSession session) {
+        try {
+            return indexContainer(container, session);
+        } catch (RuntimeException e) {
+            log.warn("Unable to index container, container will be parsed on every read: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Collects the metadata of the container. Data files can not be replaced in place, only added or removed, so
+     * digests of data files already present in the current index of the session are reused and only added data files
+     * are digested.
+     */
+    static AsicContainerIndex indexContainer(Container container, AsicContainerSession session) {
+        Map<String, AsicContainerIndex.DataFileEntry> indexedDataFiles = new HashMap<>();
+        if (session.getContainerIndex() != null) {
+            session.getContainerIndex().getDataFiles()
+                    .forEach(dataFileEntry -> indexedDataFiles.put(dataFileEntry.getFileName(), dataFileEntry));
+        }
+        AsicContainerIndex containerIndex = new AsicContainerIndex();
+        containerIndex.setContainerType(container.getType());
+        getDataFilesFromContainerSpecificDepth(container).forEach(dataFile -> {
+            AsicContainerIndex.DataFileEntry indexedDataFile = indexedDataFiles.get(dataFile.getName());
+            if (indexedDataFile != null && indexedDataFile.getFileSize() == dataFile.getFileSize()) {
+                containerIndex.getDataFiles().add(indexedDataFile);
+                return;
+            }
+            AsicContainerIndex.DataFileEntry dataFileEntry = new AsicContainerIndex.DataFileEntry();
+            dataFileEntry.setFileName(dataFile.getName());
+            dataFileEntry.setFileSize(dataFile.getFileSize());
+            dataFileEntry.setFileHashSha256(Base64.getEncoder().encodeToString(dataFile.calculateDigest()));
+            containerIndex.getDataFiles().add(dataFileEntry);
+        });
+        containerIndex.setSignatures(transformSignatures(container, session.getSignatureIdHolder()));
+        return containerIndex;
+    }
+
+    private static List<Signature> transformSignatures(Container container, Map<String, String> signatureIdHolder) {
+        Map<String, String> generatedSignatureIds = new HashMap<>();
+        signatureIdHolder.forEach((generatedSignatureId, signatureKey) -> generatedSignatureIds.put(signatureKey, generatedSignatureId));
+
+        List<Signature> signatures = new ArrayList<>();
+        for (org.digidoc4j.Signature sessionSignature : getSignaturesFromContainerSpecificDepth(container)) {
+            String generatedSignatureId = generatedSignatureIds.get(ContainerUtil.getSignatureKey(sessionSignature));
+            if (generatedSignatureId != null) {
+                signatures.add(transformSignature(generatedSignatureId, sessionSignature));
+            }
+        }
+        return signatures;
+    }
+
     private static void validateContainerType(Container container) {
         String containerType = container.getType();
         if (!ALLOWED_CONTAINER_TYPES.contains(containerType)) {
@@ -330,4 +409,21 @@ public class AsicContainerService implements AsicSessionHolder {
         }
     }
 
+
+    private record ContainerEntryContents(ZipFile zipFile, List<ZipArchiveEntry> entries) implements DataFileContents {
+
+        @Override
+        public void forEach(DataFileContentConsumer consumer) throws IOException {
+            for (ZipArchiveEntry entry : entries) {
+                try (InputStream content = zipFile.getInputStream(entry)) {
+                    consumer.accept(entry.getName(), content);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            zipFile.close();
+        }
+    }
 }
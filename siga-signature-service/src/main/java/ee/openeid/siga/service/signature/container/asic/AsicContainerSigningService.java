@@ -1,37 +1,42 @@
 package ee.openeid.siga.service.signature.container.asic;
 
 import ee.openeid.siga.common.exception.InvalidSessionDataException;
+import ee.openeid.siga.common.session.AsicContainerIndex;
 import ee.openeid.siga.common.session.AsicContainerSession;
 import ee.openeid.siga.common.session.Session;
 import ee.openeid.siga.service.signature.container.ContainerSigningService;
 import ee.openeid.siga.service.signature.session.AsicSessionHolder;
 import ee.openeid.siga.service.signature.util.ContainerUtil;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.digidoc4j.Constant;
 import org.digidoc4j.Container;
-import org.digidoc4j.DataFile;
 import org.digidoc4j.DataToSign;
 import org.digidoc4j.DigestAlgorithm;
 import org.digidoc4j.Signature;
 import org.digidoc4j.SignatureBuilder;
 import org.digidoc4j.SignatureParameters;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.util.Arrays;
+import java.io.IOException;
+import java.util.Base64;
 import java.util.Comparator;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @Profile("datafileContainer")
 public class AsicContainerSigningService extends ContainerSigningService implements AsicSessionHolder {
+    @Setter(onMethod_ = {@Autowired})
+    private ParsedContainerCache parsedContainerCache;
 
     @Override
     protected DataToSign buildDataToSign(Session session, SignatureParameters signatureParameters) {
-        AsicContainerSession asicContainerSession = (AsicContainerSession) session;
-        Container container = ContainerUtil.createContainer(asicContainerSession.getContainer(), configuration);
+        Container container = ContainerUtil.createContainer(((AsicContainerSession) session).getContainer(), configuration);
 
         SignatureBuilder signatureBuilder = buildSignatureBuilder(container, signatureParameters);
         return signatureBuilder.buildDataToSign();
@@ -42,42 +47,70 @@ public class AsicContainerSigningService extends ContainerSigningService impleme
         return getSessionHolder(containerId);
     }
 
+    /**
+     * Appends the signature to the stored container without rewriting its data files, if the session has a container
+     * index to add the signature to. Otherwise the container is parsed and saved with the signature.
+     */
     @Override
     protected void addSignatureToSession(Session sessionHolder, Signature signature, String signatureId) {
         AsicContainerSession asicContainerSession = (AsicContainerSession) sessionHolder;
-        Container container = ContainerUtil.createContainer(asicContainerSession.getContainer(), configuration);
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        container.addSignature(signature);
-        container.save(byteArrayOutputStream);
-        asicContainerSession.setContainer(byteArrayOutputStream.toByteArray());
-        asicContainerSession.addSignatureId(signatureId, Arrays.hashCode(signature.getAdESSignature()));
+        asicContainerSession.addSignatureId(signatureId, ContainerUtil.getSignatureKey(signature));
+        if (!appendSignatureToContainer(asicContainerSession, signature, signatureId)) {
+            Container container = ContainerUtil.createContainer(asicContainerSession.getContainer(), configuration);
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            container.addSignature(signature);
+            container.save(byteArrayOutputStream);
+            asicContainerSession.setContainer(byteArrayOutputStream.toByteArray());
+            asicContainerSession.setContainerIndex(AsicContainerService.createContainerIndex(container, asicContainerSession));
+        }
         asicContainerSession.clearSigningSession(signatureId);
+        parsedContainerCache.invalidate(asicContainerSession.getSessionId());
+    }
+
+    private static boolean appendSignatureToContainer(AsicContainerSession session, Signature signature, String signatureId) {
+        AsicContainerIndex containerIndex = session.getContainerIndex();
+        if (containerIndex == null) {
+            return false;
+        }
+        try {
+            session.setContainer(ContainerUtil.appendSignature(session.getContainer(), signature.getAdESSignature()));
+        } catch (IOException e) {
+            log.warn("Unable to append signature to container, saving the whole container: {}", e.getMessage());
+            return false;
+        }
+        AsicContainerIndex updatedContainerIndex = new AsicContainerIndex();
+        updatedContainerIndex.setDataFiles(containerIndex.getDataFiles());
+        updatedContainerIndex.getSignatures().addAll(containerIndex.getSignatures());
+        updatedContainerIndex.getSignatures().add(AsicContainerService.transformSignature(signatureId, signature));
+        session.setContainerIndex(updatedContainerIndex);
+        return true;
     }
 
     @Override
     protected void verifySigningObjectExistence(Session session) {
         AsicContainerSession sessionHolder = (AsicContainerSession) session;
-        Container container = Optional
-                .ofNullable(sessionHolder.getContainer())
-                .map(bytes -> ContainerUtil.createContainer(bytes, configuration))
-                .orElse(null);
-        verifyContainerExistence(container);
-        verifyContainerContainsNoEmptyDataFiles(container);
-        verifyContainerType(container);
+        verifyContainerExistence(sessionHolder);
+        AsicContainerIndex containerIndex = parsedContainerCache.get(sessionHolder);
+        verifyContainerContainsNoEmptyDataFiles(containerIndex);
+        verifyContainerType(containerIndex);
     }
 
-    private static void verifyContainerType(Container container) {
-        if (Constant.ASICS_CONTAINER_TYPE.equals(container.getType())) {
+    private static void verifyContainerType(AsicContainerIndex containerIndex) {
+        if (Constant.ASICS_CONTAINER_TYPE.equals(containerIndex.getContainerType())) {
             throw new InvalidSessionDataException("ASiC-S container signing is not allowed.");
         }
     }
 
+    /**
+     * Combines the data file digests of the container index. The container is parsed and its data files digested only
+     * if the session has no index. Composite ASiC-S containers, whose index lists the data files of the nested
+     * container, are rejected before signing.
+     */
     @Override
     public String generateDataFilesHash(Session session) {
-        Container container = ContainerUtil.createContainer(((AsicContainerSession) session).getContainer(), configuration);
-        String joinedDataFiles = container.getDataFiles().stream()
-                .sorted(Comparator.comparing(DataFile::getName))
-                .map(dataFile -> dataFile.getName() + new String(dataFile.calculateDigest()))
+        String joinedDataFiles = parsedContainerCache.get((AsicContainerSession) session).getDataFiles().stream()
+                .sorted(Comparator.comparing(AsicContainerIndex.DataFileEntry::getFileName))
+                .map(dataFile -> dataFile.getFileName() + new String(Base64.getDecoder().decode(dataFile.getFileHashSha256())))
                 .collect(Collectors.joining());
         return new String(DigestUtils.sha256(joinedDataFiles));
     }
@@ -100,14 +133,14 @@ public class AsicContainerSigningService extends ContainerSigningService impleme
         return builder;
     }
 
-    private static void verifyContainerExistence(Container container) {
-        if (container == null) {
+    private static void verifyContainerExistence(AsicContainerSession session) {
+        if (!session.hasContainer()) {
             throw new InvalidSessionDataException("Unable to create signature. Container must exist");
         }
     }
 
-    private static void verifyContainerContainsNoEmptyDataFiles(Container container) {
-        if (container.getDataFiles().stream().anyMatch(DataFile::isFileEmpty)) {
+    private static void verifyContainerContainsNoEmptyDataFiles(AsicContainerIndex containerIndex) {
+        if (containerIndex.getDataFiles().stream().anyMatch(dataFile -> dataFile.getFileSize() == 0)) {
             throw new InvalidSessionDataException("Unable to sign container with empty datafiles");
         }
     }
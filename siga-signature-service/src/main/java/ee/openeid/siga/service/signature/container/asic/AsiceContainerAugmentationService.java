@@ -4,11 +4,13 @@ import ee.openeid.siga.common.event.SigaEvent;
 import ee.openeid.siga.common.event.SigaEventLogger;
 import ee.openeid.siga.common.event.SigaEventName;
 import ee.openeid.siga.common.exception.InvalidSessionDataException;
+import ee.openeid.siga.service.signature.configuration.AugmentationValidationProperties;
 import ee.openeid.siga.service.signature.util.ContainerUtil;
 import eu.europa.esig.dss.enumerations.Indication;
 import eu.europa.esig.dss.enumerations.MimeTypeEnum;
 import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.enumerations.SignatureQualification;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.NotImplementedException;
 import org.digidoc4j.Configuration;
@@ -26,8 +28,10 @@ import org.digidoc4j.impl.ServiceAccessScope;
 import org.digidoc4j.impl.asic.AsicContainer;
 import org.digidoc4j.impl.asic.asics.AsicSContainerBuilder;
 import org.digidoc4j.impl.asic.report.SignatureValidationReport;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
@@ -35,43 +39,73 @@ import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static ee.openeid.siga.common.event.SigaEventName.EventParam.REQUEST_URL;
+import static ee.openeid.siga.common.event.SigaEventName.EventParam.VALIDATION_CONFIGURATION;
 
 @Slf4j
 @Service
 @Profile("datafileContainer")
+@EnableConfigurationProperties(AugmentationValidationProperties.class)
 public class AsiceContainerAugmentationService {
     private static final List<SignatureLevel> augmentableSignatureProfiles = List.of(
             SignatureLevel.XAdES_BASELINE_LT,
             SignatureLevel.XAdES_BASELINE_LTA
     );
+    private static final String EE_CONFIGURATION = "EE";
+    private static final String EU_CONFIGURATION = "EU";
     private final Configuration eeConfiguration;
     private final Configuration euConfiguration;
     private final SigaEventLogger sigaEventLogger;
+    private final ThreadPoolExecutor validationExecutor;
 
     @Autowired
     public AsiceContainerAugmentationService(
             @Qualifier("configuration") Configuration eeConfiguration,
             @Qualifier("euConfiguration") Configuration euConfiguration,
-            SigaEventLogger sigaEventLogger) {
+            SigaEventLogger sigaEventLogger,
+            AugmentationValidationProperties augmentationValidationProperties) {
         this.eeConfiguration = eeConfiguration;
         this.euConfiguration = euConfiguration;
         this.sigaEventLogger = sigaEventLogger;
+        this.validationExecutor = createValidationExecutor(augmentationValidationProperties);
     }
 
-    public Container augmentContainer(byte[] containerBytes, Container eeContainer, String containerName) {
-        Container euContainer = ContainerUtil.createContainer(containerBytes, euConfiguration);
+    @PreDestroy
+    public void shutdown() {
+        validationExecutor.shutdownNow();
+    }
 
+    public Container augmentContainer(byte[] containerBytes, Container eeContainer, String containerName) {
         // Container must contain at least 1 signature
         validateNotEmpty(eeContainer);
 
         // Container must contain at least 1 Estonian signature
         List<Signature> estonianSignatures = findEstonianSignaturesOrFail(eeContainer);
 
-        // Validate container with both Estonian and EU configuration
-        ContainerValidationResult eeValidationResult = eeContainer.validate();
-        ContainerValidationResult euValidationResult = euContainer.validate();
+        // Validate container with both Estonian and EU configuration, EU parsing and validation running concurrently
+        CompletableFuture<TimedValidation> euValidation = CompletableFuture.supplyAsync(
+                withLoggingContext(() -> parseAndValidate(containerBytes, euConfiguration)),
+                validationExecutor);
+        TimedValidation eeValidation;
+        try {
+            eeValidation = validate(eeContainer, null);
+        } catch (RuntimeException e) {
+            euValidation.cancel(true);
+            throw e;
+        }
+        TimedValidation euValidationOutcome = join(euValidation);
+        logValidationEvents(EE_CONFIGURATION, eeValidation);
+        logValidationEvents(EU_CONFIGURATION, euValidationOutcome);
+        ContainerValidationResult eeValidationResult = eeValidation.validationResult();
+        ContainerValidationResult euValidationResult = euValidationOutcome.validationResult();
 
         // Only personal signatures can be augmented, not e-seals
         List<Signature> signaturesWithoutESeals = findPersonalSignaturesOrFail(estonianSignatures, eeValidationResult);
@@ -109,6 +143,85 @@ public class AsiceContainerAugmentationService {
         return eeContainer;
     }
 
+    private static TimedValidation parseAndValidate(byte[] containerBytes, Configuration configuration) {
+        long parsingStart = System.nanoTime();
+        Container container = ContainerUtil.createContainer(containerBytes, configuration);
+        return validate(container, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - parsingStart));
+    }
+
+    private static TimedValidation validate(Container container, Long parsingDuration) {
+        long validationStart = System.nanoTime();
+        ContainerValidationResult validationResult = container.validate();
+        return new TimedValidation(validationResult, parsingDuration, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - validationStart));
+    }
+
+    private static TimedValidation join(CompletableFuture<TimedValidation> validation) {
+        try {
+            return validation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    static <T> Supplier<T> withLoggingContext(Supplier<T> supplier) {
+        Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previousLoggingContext = MDC.getCopyOfContextMap();
+            setLoggingContext(loggingContext);
+            try {
+                return supplier.get();
+            } finally {
+                setLoggingContext(previousLoggingContext);
+            }
+        };
+    }
+
+    private static void setLoggingContext(Map<String, String> loggingContext) {
+        if (loggingContext != null) {
+            MDC.setContextMap(loggingContext);
+        } else {
+            MDC.clear();
+        }
+    }
+
+    private void logValidationEvents(String configuration, TimedValidation validation) {
+        if (validation.parsingDuration() != null) {
+            SigaEvent parsingEvent = SigaEvent.buildEventWithParameter(SigaEventName.AUGMENTATION_CONTAINER_PARSING, VALIDATION_CONFIGURATION, configuration);
+            parsingEvent.setDuration(validation.parsingDuration());
+            sigaEventLogger.logEvent(parsingEvent);
+        }
+        SigaEvent validationEvent = SigaEvent.buildEventWithParameter(SigaEventName.AUGMENTATION_CONTAINER_VALIDATION, VALIDATION_CONFIGURATION, configuration);
+        validationEvent.setDuration(validation.validationDuration());
+        sigaEventLogger.logEvent(validationEvent);
+    }
+
+    /**
+     * Validation is run by the calling thread when all threads are busy and the queue is full.
+     */
+    private static ThreadPoolExecutor createValidationExecutor(AugmentationValidationProperties properties) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                properties.getPoolSize(),
+                properties.getPoolSize(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "siga-augmentation-validation-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private record TimedValidation(ContainerValidationResult validationResult, Long parsingDuration, long validationDuration) {
+    }
+
     private Container wrapAsiceIntoAsics(byte[] container, String containerName) {
         Container asicsContainer = new AsicSContainerBuilder()
                 .withConfiguration(eeConfiguration)
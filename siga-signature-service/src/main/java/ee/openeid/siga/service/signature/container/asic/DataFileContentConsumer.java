@@ -0,0 +1,13 @@
+package ee.openeid.siga.service.signature.container.asic;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@FunctionalInterface
+public interface DataFileContentConsumer {
+
+    /**
+     * Consumes the content of a data file. The content stream is closed after the consumer returns.
+     */
+    void accept(String fileName, InputStream content) throws IOException;
+}
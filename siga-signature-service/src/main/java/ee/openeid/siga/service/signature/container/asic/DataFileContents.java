@@ -0,0 +1,20 @@
+package ee.openeid.siga.service.signature.container.asic;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Data files of a container, located before any of their content is read.
+ */
+@FunctionalInterface
+public interface DataFileContents extends Closeable {
+
+    /**
+     * Passes the content of each data file to the consumer without loading the data files into memory.
+     */
+    void forEach(DataFileContentConsumer consumer) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,87 @@
+package ee.openeid.siga.service.signature.container.asic;
+
+import ee.openeid.siga.service.signature.configuration.DataFileStorageProperties;
+import eu.europa.esig.dss.enumerations.MimeType;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.digidoc4j.DataFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates DSS documents of the data files added to a container while their content is being decoded. Data files above
+ * the configured threshold are written to temporary files instead of memory, and the temporary files are deleted once
+ * the container has been saved and this instance is closed.
+ */
+@Slf4j
+public class DataFileDocuments implements Closeable {
+    private static final String TEMP_FILE_PREFIX = "siga-datafile-";
+
+    private final DataFileStorageProperties dataFileStorageProperties;
+    private final List<Path> tempFiles = new ArrayList<>();
+
+    public DataFileDocuments(DataFileStorageProperties dataFileStorageProperties) {
+        this.dataFileStorageProperties = dataFileStorageProperties;
+    }
+
+    /**
+     * Creates a document of the content written by the content writer. The name of the document is left unset, as the
+     * name of a data file may follow its content in the request.
+     */
+    public DSSDocument createDocument(ContentWriter contentWriter) throws IOException {
+        DeferredFileOutputStream outputStream = DeferredFileOutputStream.builder()
+                .setThreshold((int) Math.min(dataFileStorageProperties.getFileThreshold().toBytes(), Integer.MAX_VALUE))
+                .setPrefix(TEMP_FILE_PREFIX)
+                .setDirectory(getTempDirectory())
+                .get();
+        try (outputStream) {
+            contentWriter.write(outputStream);
+        } finally {
+            if (!outputStream.isInMemory()) {
+                tempFiles.add(outputStream.getPath());
+            }
+        }
+        return outputStream.isInMemory()
+                ? new InMemoryDocument(outputStream.getData())
+                : new FileDocument(outputStream.getFile());
+    }
+
+    public static DataFile createDataFile(String fileName, DSSDocument document) {
+        document.setName(fileName);
+        document.setMimeType(MimeType.fromFileName(fileName));
+        DataFile dataFile = new DataFile();
+        dataFile.setDocument(document);
+        return dataFile;
+    }
+
+    private Path getTempDirectory() {
+        Path tempDirectory = dataFileStorageProperties.getTempDirectory();
+        return tempDirectory == null ? Path.of(System.getProperty("java.io.tmpdir")) : tempDirectory;
+    }
+
+    @Override
+    public void close() {
+        for (Path tempFile : tempFiles) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Unable to delete temporary data file {}: {}", tempFile, e.getMessage());
+            }
+        }
+        tempFiles.clear();
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream outputStream) throws IOException;
+    }
+}
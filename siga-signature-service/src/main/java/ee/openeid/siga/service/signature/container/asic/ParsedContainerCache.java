@@ -0,0 +1,96 @@
+package ee.openeid.siga.service.signature.container.asic;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ee.openeid.siga.common.model.Signature;
+import ee.openeid.siga.common.session.AsicContainerIndex;
+import ee.openeid.siga.common.session.AsicContainerSession;
+import ee.openeid.siga.service.signature.configuration.ParsedContainerCacheProperties;
+import ee.openeid.siga.service.signature.util.ContainerUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.digidoc4j.Configuration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Provides the container index of ASiC sessions. Sessions written with a complete index are served their own index,
+ * for other sessions the index is built by parsing the container and kept on the local node, so that a container is
+ * parsed once per content version instead of on every read. Built indexes are cached by session ID together with the
+ * container version assigned by the session store on every write, so an index of a container written by another node
+ * is never served from a stale entry.
+ * <p>
+ * Parsed containers themselves are not cached, as they are mutable and not thread-safe. Operations that need
+ * a {@link org.digidoc4j.Container} parse their own with {@link ContainerUtil#createContainer}, and call
+ * {@link #invalidate} once a changed container has been written.
+ */
+@Slf4j
+@Component
+@Profile("datafileContainer")
+@EnableConfigurationProperties(ParsedContainerCacheProperties.class)
+public class ParsedContainerCache {
+    private final Configuration configuration;
+    private final Cache<String, CachedContainerIndex> containerIndexes;
+
+    public ParsedContainerCache(Configuration configuration, ParsedContainerCacheProperties parsedContainerCacheProperties) {
+        this.configuration = configuration;
+        this.containerIndexes = CacheBuilder.newBuilder()
+                .maximumWeight(parsedContainerCacheProperties.getMaxSize().toBytes())
+                .<String, CachedContainerIndex>weigher((sessionId, cachedContainerIndex) -> weigh(cachedContainerIndex.containerIndex()))
+                .expireAfterAccess(parsedContainerCacheProperties.getExpireAfterAccess())
+                .build();
+    }
+
+    /**
+     * Returns the index of the container of the session. Indexes of containers that have not been written to the
+     * session store yet are built without caching. The returned index must not be modified.
+     */
+    public AsicContainerIndex get(AsicContainerSession session) {
+        AsicContainerIndex sessionContainerIndex = session.getContainerIndex();
+        if (sessionContainerIndex != null && sessionContainerIndex.getContainerType() != null) {
+            return sessionContainerIndex;
+        }
+        String containerVersion = session.getContainerVersion();
+        if (session.isContainerModified() || containerVersion == null) {
+            return indexContainer(session);
+        }
+        CachedContainerIndex cachedContainerIndex = containerIndexes.getIfPresent(session.getSessionId());
+        if (cachedContainerIndex != null && cachedContainerIndex.containerVersion().equals(containerVersion)) {
+            return cachedContainerIndex.containerIndex();
+        }
+        AsicContainerIndex containerIndex = indexContainer(session);
+        containerIndexes.put(session.getSessionId(), new CachedContainerIndex(containerVersion, containerIndex));
+        log.debug("Parsed container of session {} with version {}", session.getSessionId(), containerVersion);
+        return containerIndex;
+    }
+
+    public void invalidate(String sessionId) {
+        containerIndexes.invalidate(sessionId);
+    }
+
+    private AsicContainerIndex indexContainer(AsicContainerSession session) {
+        return AsicContainerService.indexContainer(ContainerUtil.createContainer(session.getContainer(), configuration), session);
+    }
+
+    /**
+     * Estimated number of bytes taken by the index.
+     */
+    private static int weigh(AsicContainerIndex containerIndex) {
+        int weight = length(containerIndex.getContainerType());
+        for (AsicContainerIndex.DataFileEntry dataFile : containerIndex.getDataFiles()) {
+            weight += length(dataFile.getFileName()) + length(dataFile.getFileHashSha256()) + Long.BYTES;
+        }
+        for (Signature signature : containerIndex.getSignatures()) {
+            weight += length(signature.getGeneratedSignatureId()) + length(signature.getId())
+                    + length(signature.getSignerInfo()) + length(signature.getSignatureProfile());
+        }
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private record CachedContainerIndex(String containerVersion, AsicContainerIndex containerIndex) {
+    }
+}
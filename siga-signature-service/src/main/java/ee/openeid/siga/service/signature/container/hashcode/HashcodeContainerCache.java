@@ -0,0 +1,97 @@
+package ee.openeid.siga.service.signature.container.hashcode;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Ints;
+import ee.openeid.siga.common.model.HashcodeDataFile;
+import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
+import ee.openeid.siga.common.session.HashcodeContainerSession;
+import ee.openeid.siga.service.signature.configuration.HashcodeContainerCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the last serialized container of hashcode sessions on the local node, Base64 encoded as it is returned, so
+ * that downloading a container that has not changed since the previous download does not build or encode the
+ * container again. Containers are cached by session ID together with a digest of the data files and signature IDs
+ * they were built from, so a container changed on another node is never served from a stale entry.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(HashcodeContainerCacheProperties.class)
+public class HashcodeContainerCache {
+    private final Cache<String, SerializedContainer> containers;
+
+    public HashcodeContainerCache(HashcodeContainerCacheProperties hashcodeContainerCacheProperties) {
+        this.containers = CacheBuilder.newBuilder()
+                .maximumWeight(hashcodeContainerCacheProperties.getMaxSize().toBytes())
+                .<String, SerializedContainer>weigher((sessionId, serializedContainer) ->
+                        serializedContainer.contentDigest().length + serializedContainer.container().length())
+                .expireAfterAccess(hashcodeContainerCacheProperties.getExpireAfterAccess())
+                .build();
+    }
+
+    /**
+     * Returns the Base64 encoded container of the session, serializing it only if the data files or signatures of the
+     * session have changed since the cached container was built.
+     */
+    public String get(HashcodeContainerSession session, Supplier<byte[]> containerSerializer) {
+        byte[] contentDigest = digestContent(session);
+        SerializedContainer serializedContainer = containers.getIfPresent(session.getSessionId());
+        if (serializedContainer != null && Arrays.equals(serializedContainer.contentDigest(), contentDigest)) {
+            return serializedContainer.container();
+        }
+        String container = Base64.getEncoder().encodeToString(containerSerializer.get());
+        containers.put(session.getSessionId(), new SerializedContainer(contentDigest, container));
+        log.debug("Serialized container of session {}", session.getSessionId());
+        return container;
+    }
+
+    public void invalidate(String sessionId) {
+        containers.invalidate(sessionId);
+    }
+
+    /**
+     * Signatures are identified by their generated IDs, as the signature of a generated ID never changes.
+     */
+    private static byte[] digestContent(HashcodeContainerSession session) {
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        digest.update(Ints.toByteArray(session.getDataFiles().size()));
+        for (HashcodeDataFile dataFile : session.getDataFiles()) {
+            update(digest, dataFile.getFileName());
+            update(digest, dataFile.getFileHashSha256());
+            update(digest, dataFile.getFileHashSha512());
+            update(digest, dataFile.getMimeType());
+            update(digest, dataFile.getFileSize() == null ? null : dataFile.getFileSize().toString());
+        }
+        digest.update(Ints.toByteArray(session.getSignatures().size()));
+        for (HashcodeSignatureWrapper signature : session.getSignatures()) {
+            update(digest, signature.getGeneratedSignatureId());
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Values are length prefixed, so that values of adjacent fields cannot be shifted into each other.
+     */
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update(Ints.toByteArray(-1));
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(Ints.toByteArray(bytes.length));
+        digest.update(bytes);
+    }
+
+    private record SerializedContainer(byte[] contentDigest, String container) {
+    }
+}
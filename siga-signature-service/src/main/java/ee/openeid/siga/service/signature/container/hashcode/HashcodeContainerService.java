@@ -9,6 +9,7 @@ import ee.openeid.siga.common.model.HashcodeDataFile;
 import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
 import ee.openeid.siga.common.model.Result;
 import ee.openeid.siga.common.model.Signature;
+import ee.openeid.siga.common.model.SignatureDetails;
 import ee.openeid.siga.common.session.HashcodeContainerSession;
 import ee.openeid.siga.common.util.UUIDGenerator;
 import ee.openeid.siga.service.signature.hashcode.HashcodeContainer;
@@ -16,6 +17,7 @@ import ee.openeid.siga.service.signature.session.HashcodeSessionHolder;
 import ee.openeid.siga.session.SessionService;
 import eu.europa.esig.dss.enumerations.MimeType;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.DetachedXadesSignatureBuilder;
 import org.digidoc4j.exceptions.DigiDoc4JException;
@@ -28,11 +30,14 @@ import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class HashcodeContainerService implements HashcodeSessionHolder {
     private final SessionService sessionService;
     private final Configuration configuration;
+    private final HashcodeContainerCache hashcodeContainerCache;
+    private final ParsedSignatureCache parsedSignatureCache;
 
     public String createContainer(List<HashcodeDataFile> dataFiles) {
 
@@ -52,27 +57,20 @@ public class HashcodeContainerService implements HashcodeSessionHolder {
         SigaUserDetails sigaUserDetails = (SigaUserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         HashcodeContainer hashcodeContainer = new HashcodeContainer(sigaUserDetails.getServiceType());
         hashcodeContainer.open(Base64.getDecoder().decode(container.getBytes()));
+        hashcodeContainer.getSignatures().forEach(this::addSignatureMetadata);
         sessionService.update(transformContainerToSession(containerId, hashcodeContainer));
         return containerId;
     }
 
     public String getContainer(String containerId) {
         HashcodeContainerSession sessionHolder = getSessionHolder(containerId);
-
-        HashcodeContainer hashcodeContainer = new HashcodeContainer();
-        sessionHolder.getSignatures().forEach(signatureWrapper -> hashcodeContainer.getSignatures().add(signatureWrapper));
-        sessionHolder.getDataFiles().forEach(dataFile -> hashcodeContainer.getDataFiles().add(dataFile));
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        hashcodeContainer.save(outputStream);
-        byte[] container = outputStream.toByteArray();
-
-        return new String(Base64.getEncoder().encode(container));
+        return hashcodeContainerCache.get(sessionHolder, () -> serializeContainer(sessionHolder));
     }
 
 
     public Result closeSession(String containerId) {
         sessionService.removeByContainerId(containerId);
+        hashcodeContainerCache.invalidate(sessionService.getSessionId(containerId));
         return Result.OK;
     }
 
@@ -83,7 +81,7 @@ public class HashcodeContainerService implements HashcodeSessionHolder {
         return signatures;
     }
 
-    public org.digidoc4j.Signature getSignature(String containerId, String signatureId) {
+    public SignatureDetails getSignature(String containerId, String signatureId) {
         HashcodeContainerSession sessionHolder = getSessionHolder(containerId);
         Optional<HashcodeSignatureWrapper> signatureWrapper = sessionHolder.getSignatures().stream()
                 .filter(wrapper -> wrapper.getGeneratedSignatureId().equals(signatureId))
@@ -91,8 +89,7 @@ public class HashcodeContainerService implements HashcodeSessionHolder {
         if (signatureWrapper.isEmpty()) {
             throw new ResourceNotFoundException("Signature with id  " + signatureId + " not found");
         }
-        DetachedXadesSignatureBuilder builder = DetachedXadesSignatureBuilder.withConfiguration(configuration);
-        return builder.openAdESSignature(signatureWrapper.get().getSignature());
+        return parsedSignatureCache.get(signatureWrapper.get());
     }
 
     public List<HashcodeDataFile> getDataFiles(String containerId) {
@@ -124,11 +121,37 @@ public class HashcodeContainerService implements HashcodeSessionHolder {
     }
 
     public Signature transformSignature(HashcodeSignatureWrapper signatureWrapper) {
+        if (signatureWrapper.getMetadata() != null) {
+            return signatureWrapper.getMetadata();
+        }
+        return transformSignature(signatureWrapper.getGeneratedSignatureId(), openSignature(signatureWrapper));
+    }
+
+    static Signature transformSignature(String generatedSignatureId, org.digidoc4j.Signature dd4jSignature) {
         Signature signature = new Signature();
+        signature.setId(dd4jSignature.getId());
+        signature.setGeneratedSignatureId(generatedSignatureId);
+        signature.setSignatureProfile(dd4jSignature.getProfile().name());
+        signature.setSignerInfo(dd4jSignature.getSigningCertificate().getSubjectName());
+        return signature;
+    }
+
+    /**
+     * Signatures that cannot be parsed are left without metadata, so that listing the signatures reports the error.
+     */
+    private void addSignatureMetadata(HashcodeSignatureWrapper signatureWrapper) {
+        try {
+            org.digidoc4j.Signature dd4jSignature = openSignature(signatureWrapper);
+            signatureWrapper.setMetadata(transformSignature(signatureWrapper.getGeneratedSignatureId(), dd4jSignature));
+        } catch (InvalidSignatureException | DigiDoc4JException e) {
+            log.debug("Unable to collect metadata of signature {}: {}", signatureWrapper.getGeneratedSignatureId(), e.getMessage());
+        }
+    }
+
+    private org.digidoc4j.Signature openSignature(HashcodeSignatureWrapper signatureWrapper) {
         DetachedXadesSignatureBuilder builder = DetachedXadesSignatureBuilder.withConfiguration(configuration);
-        org.digidoc4j.Signature dd4jSignature;
         try {
-            dd4jSignature = builder.openAdESSignature(signatureWrapper.getSignature());
+            return builder.openAdESSignature(signatureWrapper.getSignature());
         } catch (DigiDoc4JException e) {
             throw new InvalidSignatureException(e.getMessage());
         } catch (IllegalArgumentException e) {
@@ -139,11 +162,6 @@ public class HashcodeContainerService implements HashcodeSessionHolder {
             //  This might need a revisit after DD4J/DSS has been updated.
             throw new InvalidSignatureException("Failed to parse detached XAdES signature: " + e.getMessage());
         }
-        signature.setId(dd4jSignature.getId());
-        signature.setGeneratedSignatureId(signatureWrapper.getGeneratedSignatureId());
-        signature.setSignatureProfile(dd4jSignature.getProfile().name());
-        signature.setSignerInfo(dd4jSignature.getSigningCertificate().getSubjectName());
-        return signature;
     }
 
     private void validateIfSessionMutable(HashcodeContainerSession session) {
@@ -152,6 +170,16 @@ public class HashcodeContainerService implements HashcodeSessionHolder {
         }
     }
 
+    private static byte[] serializeContainer(HashcodeContainerSession sessionHolder) {
+        HashcodeContainer hashcodeContainer = new HashcodeContainer();
+        sessionHolder.getSignatures().forEach(signatureWrapper -> hashcodeContainer.getSignatures().add(signatureWrapper));
+        sessionHolder.getDataFiles().forEach(dataFile -> hashcodeContainer.getDataFiles().add(dataFile));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        hashcodeContainer.save(outputStream);
+        return outputStream.toByteArray();
+    }
+
     private HashcodeContainerSession transformContainerToSession(String containerId, HashcodeContainer container) {
         String sessionId = sessionService.getSessionId(containerId);
         SigaUserDetails authenticatedUser = (SigaUserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -50,6 +50,7 @@ public class HashcodeContainerSigningService extends ContainerSigningService imp
     @Override
     protected void addSignatureToSession(Session sessionHolder, Signature signature, String signatureId) {
         HashcodeSignatureWrapper signatureWrapper = createSignatureWrapper(signatureId, signature.getAdESSignature());
+        signatureWrapper.setMetadata(HashcodeContainerService.transformSignature(signatureId, signature));
         HashcodeContainerSession hashcodeContainerSession = (HashcodeContainerSession) sessionHolder;
         hashcodeContainerSession.getSignatures().add(signatureWrapper);
         hashcodeContainerSession.clearSigningSession(signatureId);
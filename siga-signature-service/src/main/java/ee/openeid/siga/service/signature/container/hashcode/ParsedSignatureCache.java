@@ -0,0 +1,55 @@
+package ee.openeid.siga.service.signature.container.hashcode;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
+import ee.openeid.siga.common.model.SignatureDetails;
+import ee.openeid.siga.service.signature.configuration.ParsedSignatureCacheProperties;
+import ee.openeid.siga.service.signature.util.ContainerUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.DetachedXadesSignatureBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the details of detached signatures of hashcode sessions parsed on the local node, so that requesting the
+ * details of a signature repeatedly parses the signature only once. Details are cached by their generated signature
+ * IDs, as the signature of a generated ID never changes.
+ * <p>
+ * Parsed digidoc4j signatures are not thread-safe, so only the immutable details are shared between requests.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(ParsedSignatureCacheProperties.class)
+public class ParsedSignatureCache {
+    private final Configuration configuration;
+    private final Cache<String, ParsedSignature> signatures;
+
+    public ParsedSignatureCache(Configuration configuration, ParsedSignatureCacheProperties parsedSignatureCacheProperties) {
+        this.configuration = configuration;
+        this.signatures = CacheBuilder.newBuilder()
+                .maximumWeight(parsedSignatureCacheProperties.getMaxSize().toBytes())
+                .<String, ParsedSignature>weigher((generatedSignatureId, parsedSignature) -> parsedSignature.size())
+                .expireAfterAccess(parsedSignatureCacheProperties.getExpireAfterAccess())
+                .build();
+    }
+
+    public SignatureDetails get(HashcodeSignatureWrapper signatureWrapper) {
+        String generatedSignatureId = signatureWrapper.getGeneratedSignatureId();
+        ParsedSignature parsedSignature = signatures.getIfPresent(generatedSignatureId);
+        if (parsedSignature != null) {
+            return parsedSignature.details();
+        }
+        byte[] signature = signatureWrapper.getSignature();
+        DetachedXadesSignatureBuilder builder = DetachedXadesSignatureBuilder.withConfiguration(configuration);
+        SignatureDetails details = ContainerUtil.getSignatureDetails(builder.openAdESSignature(signature));
+        parsedSignature = new ParsedSignature(details, signature.length);
+        signatures.put(generatedSignatureId, parsedSignature);
+        log.debug("Parsed signature {}", generatedSignatureId);
+        return details;
+    }
+
+    private record ParsedSignature(SignatureDetails details, int size) {
+    }
+}
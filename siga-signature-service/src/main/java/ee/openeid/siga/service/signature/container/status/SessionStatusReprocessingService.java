@@ -7,15 +7,10 @@ import ee.openeid.siga.common.session.SessionStatus;
 import ee.openeid.siga.common.session.SignatureSession;
 import ee.openeid.siga.service.signature.configuration.SessionStatusReprocessingProperties;
 import ee.openeid.siga.service.signature.container.ContainerSigningService;
-import ee.openeid.siga.session.CacheName;
 import ee.openeid.siga.session.SessionService;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.ignite.Ignite;
-import org.apache.ignite.binary.BinaryObject;
-import org.apache.ignite.cache.query.QueryCursor;
-import org.apache.ignite.cache.query.ScanQuery;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -33,7 +28,6 @@ import static java.time.Duration.ZERO;
 @EnableConfigurationProperties(SessionStatusReprocessingProperties.class)
 public class SessionStatusReprocessingService {
     private final ThreadPoolTaskExecutor taskExecutor;
-    private final Ignite ignite;
     private final ContainerSigningServiceSelector containerSigningServiceSelector;
     private final SessionService sessionService;
     private final SessionStatusReprocessingProperties reprocessingProperties;
@@ -43,12 +37,8 @@ public class SessionStatusReprocessingService {
         SignatureStatusRequestFilter filter = new SignatureStatusRequestFilter(
                 reprocessingProperties.getMaxProcessingAttempts(),
                 reprocessingProperties.getProcessingTimeout(), reprocessingProperties.getExceptionTimeout());
-        ScanQuery<String, Map<String, BinaryObject>> query = new ScanQuery<>(filter);
-        try (QueryCursor<String> queryCursor = ignite.getOrCreateCache(CacheName.SIGNATURE_SESSION.name())
-                .withKeepBinary()
-                .query(query, new SessionIdQueryTransformer())) {
-            queryCursor.forEach(sessionId -> processFailedContainerSession(filter, sessionId));
-        }
+        sessionService.findSessionIdsBySignatureStatus(filter)
+                .forEach(sessionId -> processFailedContainerSession(filter, sessionId));
     }
 
     void processFailedContainerSession(SignatureStatusRequestFilter filter, String sessionId) {
@@ -81,12 +71,8 @@ public class SessionStatusReprocessingService {
         CertificateStatusRequestFilter filter = new CertificateStatusRequestFilter(
                 reprocessingProperties.getMaxProcessingAttempts(),
                 reprocessingProperties.getProcessingTimeout(), reprocessingProperties.getExceptionTimeout());
-        ScanQuery<String, Map<String, BinaryObject>> query = new ScanQuery<>(filter);
-        try (QueryCursor<String> queryCursor = ignite.getOrCreateCache(CacheName.CERTIFICATE_SESSION.name())
-                .withKeepBinary()
-                .query(query, new SessionIdQueryTransformer())) {
-            queryCursor.forEach(sessionId -> processFailedCertificateStatusRequest(filter, sessionId));
-        }
+        sessionService.findSessionIdsByCertificateStatus(filter)
+                .forEach(sessionId -> processFailedCertificateStatusRequest(filter, sessionId));
     }
 
     void processFailedCertificateStatusRequest(CertificateStatusRequestFilter filter, String sessionId) {
@@ -8,10 +8,7 @@ import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
 import ee.openeid.siga.common.model.ServiceType;
 import ee.openeid.siga.common.util.UUIDGenerator;
 import ee.openeid.siga.service.signature.util.ContainerUtil;
-import eu.europa.esig.dss.enumerations.MimeTypeEnum;
-import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.DSSException;
-import eu.europa.esig.dss.model.DigestDocument;
 import eu.europa.esig.dss.model.InMemoryDocument;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipFile;
@@ -20,16 +17,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.digidoc4j.impl.asic.manifest.AsicManifest;
 import org.digidoc4j.impl.asic.manifest.ManifestEntry;
 import org.digidoc4j.impl.asic.manifest.ManifestParser;
-import org.digidoc4j.utils.MimeTypeUtil;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -41,6 +37,7 @@ public class HashcodeContainer {
     private static final String META_INF_DIRECTORY = "META-INF";
     private static final Pattern SIGNATURES_FILE_PATTERN = Pattern.compile("META-INF/(.*)signatures(.*).xml");
     private List<HashcodeDataFile> dataFiles = new ArrayList<>();
+    private Map<String, HashcodeDataFile> dataFilesByName = new HashMap<>();
     private List<HashcodeSignatureWrapper> signatures = new ArrayList<>();
     private Map<String, ManifestEntry> manifest;
     private ServiceType serviceType;
@@ -87,6 +84,7 @@ public class HashcodeContainer {
         if (!signatures.isEmpty())
             throw new SignatureExistsException("Unable to add data file when signature exists");
         dataFiles.add(dataFile);
+        dataFilesByName.putIfAbsent(dataFile.getFileName(), dataFile);
     }
 
     private void validateManifest() {
@@ -138,7 +136,7 @@ public class HashcodeContainer {
     private void createHashcodeContainer(OutputStream outputStream) {
         HashcodeContainerCreator hashcodeContainerCreator = new HashcodeContainerCreator(outputStream);
         hashcodeContainerCreator.writeMimeType();
-        hashcodeContainerCreator.writeManifest(convertDataFiles());
+        hashcodeContainerCreator.writeManifest(dataFiles);
         hashcodeContainerCreator.writeHashcodeFiles(dataFiles);
         hashcodeContainerCreator.writeSignatures(signatures);
 
@@ -196,34 +194,33 @@ public class HashcodeContainer {
         if (manifest == null) {
             return;
         }
-        dataFiles.forEach(dataFile ->
-                manifest.forEach((s, manifestEntry) -> {
-                    if (dataFile.getFileName().equals(manifestEntry.getFileName())) {
-                        dataFile.setMimeType(manifestEntry.getMimeType());
-                    }
-                }));
-
+        dataFiles.forEach(dataFile -> {
+            ManifestEntry manifestEntry = manifest.get(dataFile.getFileName());
+            if (manifestEntry != null) {
+                dataFile.setMimeType(manifestEntry.getMimeType());
+            }
+        });
     }
 
+    /**
+     * Merges the entries of a hashcodes file into the data files of the container. Data files are looked up by name,
+     * so that the SHA256 and SHA512 hashcodes files are merged in linear time while keeping the order in which the
+     * files first appear.
+     */
     private void addDataFileEntries(Map<String, HashcodesEntry> entries, String entryName) {
         entries.forEach((file, hashcodesEntry) -> {
-            Optional<HashcodeDataFile> existingDataFile = dataFiles.stream().filter(dataFile -> dataFile.getFileName().equals(file)).findAny();
-            if (existingDataFile.isPresent()) {
-                if (HashcodesDataFile.HASHCODES_SHA256.equals(entryName)) {
-                    existingDataFile.get().setFileHashSha256(hashcodesEntry.getHash());
-                } else if (HashcodesDataFile.HASHCODES_SHA512.equals(entryName)) {
-                    existingDataFile.get().setFileHashSha512(hashcodesEntry.getHash());
-                }
-            } else {
-                HashcodeDataFile hashcodeDataFile = new HashcodeDataFile();
+            HashcodeDataFile hashcodeDataFile = dataFilesByName.get(file);
+            if (hashcodeDataFile == null) {
+                hashcodeDataFile = new HashcodeDataFile();
                 hashcodeDataFile.setFileName(file);
                 hashcodeDataFile.setFileSize(hashcodesEntry.getSize());
-                if (HashcodesDataFile.HASHCODES_SHA256.equals(entryName)) {
-                    hashcodeDataFile.setFileHashSha256(hashcodesEntry.getHash());
-                } else if (HashcodesDataFile.HASHCODES_SHA512.equals(entryName)) {
-                    hashcodeDataFile.setFileHashSha512(hashcodesEntry.getHash());
-                }
                 dataFiles.add(hashcodeDataFile);
+                dataFilesByName.put(file, hashcodeDataFile);
+            }
+            if (HashcodesDataFile.HASHCODES_SHA256.equals(entryName)) {
+                hashcodeDataFile.setFileHashSha256(hashcodesEntry.getHash());
+            } else if (HashcodesDataFile.HASHCODES_SHA512.equals(entryName)) {
+                hashcodeDataFile.setFileHashSha512(hashcodesEntry.getHash());
             }
         });
     }
@@ -234,16 +231,4 @@ public class HashcodeContainer {
         }
     }
 
-    private List<org.digidoc4j.DataFile> convertDataFiles() {
-        return dataFiles.stream().map(d -> {
-            DSSDocument dssDocument = new DigestDocument();
-            dssDocument.setMimeType(d.getMimeType() != null ? MimeTypeUtil.fromMimeTypeString(d.getMimeType()) : MimeTypeEnum.BINARY);
-            dssDocument.setName(d.getFileName());
-            org.digidoc4j.DataFile dataFile = new org.digidoc4j.DataFile();
-            dataFile.setDocument(dssDocument);
-            return dataFile;
-
-        }).collect(Collectors.toList());
-    }
-
 }
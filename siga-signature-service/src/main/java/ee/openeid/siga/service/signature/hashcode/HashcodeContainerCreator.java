@@ -3,11 +3,14 @@ package ee.openeid.siga.service.signature.hashcode;
 import ee.openeid.siga.common.exception.TechnicalException;
 import ee.openeid.siga.common.model.HashcodeDataFile;
 import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
+import ee.openeid.siga.service.signature.util.XmlStreamUtil;
 import eu.europa.esig.dss.enumerations.MimeTypeEnum;
-import org.digidoc4j.Container;
 import org.digidoc4j.DigestAlgorithm;
 import org.digidoc4j.impl.asic.manifest.AsicManifest;
+import org.digidoc4j.utils.MimeTypeUtil;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
@@ -21,6 +24,9 @@ class HashcodeContainerCreator {
     static final String SIGNATURE_FILE_PREFIX = "META-INF/signatures";
     static final String ZIP_ENTRY_MIMETYPE = "mimetype";
     private static final String SIGNATURE_FILE_EXTENSION = ".xml";
+    private static final String MANIFEST_XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+    private static final String MANIFEST_PREFIX = "manifest";
+    private static final String MANIFEST_NAMESPACE = "urn:oasis:names:tc:opendocument:xmlns:manifest:1.0";
     private final ZipOutputStream zipOutputStream;
 
     HashcodeContainerCreator(OutputStream outputStream) {
@@ -47,11 +53,10 @@ class HashcodeContainerCreator {
 
     private void writeHashcodeFile(List<HashcodeDataFile> dataFiles, DigestAlgorithm digestAlgorithm, String entryName) {
         HashcodesDataFile hashcodesDataFile = new HashcodesDataFile(digestAlgorithm);
-        hashcodesDataFile.generateHashcodeFile(dataFiles);
         new EntryCallback(new ZipEntry(entryName)) {
             @Override
             void doWithEntryStream(OutputStream stream) {
-                hashcodesDataFile.writeTo(stream);
+                hashcodesDataFile.writeTo(dataFiles, stream);
             }
         }.write();
     }
@@ -78,17 +83,40 @@ class HashcodeContainerCreator {
         }
     }
 
-    void writeManifest(List<org.digidoc4j.DataFile> dataFiles) {
-        final AsicManifest asicManifest = new AsicManifest(Container.DocumentType.ASICE.name());
-        asicManifest.addFileEntries(dataFiles);
+    /**
+     * Writes the ASiC-E manifest of the data files straight to the ZIP entry, in the same form as the manifest of
+     * DigiDoc4j.
+     */
+    void writeManifest(List<HashcodeDataFile> dataFiles) {
         new EntryCallback(new ZipEntry(AsicManifest.XML_PATH)) {
             @Override
             void doWithEntryStream(OutputStream stream) {
-                asicManifest.writeTo(stream);
+                XmlStreamUtil.write(stream, MANIFEST_XML_DECLARATION, writer -> {
+                    writer.writeStartElement(MANIFEST_PREFIX, "manifest", MANIFEST_NAMESPACE);
+                    writer.writeNamespace(MANIFEST_PREFIX, MANIFEST_NAMESPACE);
+                    writer.writeAttribute(MANIFEST_PREFIX, MANIFEST_NAMESPACE, "version", "1.2");
+                    writeManifestFileEntry(writer, "/", MimeTypeEnum.ASICE.getMimeTypeString());
+                    for (HashcodeDataFile dataFile : dataFiles) {
+                        writeManifestFileEntry(writer, dataFile.getFileName(), getMediaType(dataFile));
+                    }
+                    writer.writeEndElement();
+                });
             }
         }.write();
     }
 
+    private static void writeManifestFileEntry(XMLStreamWriter writer, String fullPath, String mediaType) throws XMLStreamException {
+        writer.writeEmptyElement(MANIFEST_PREFIX, "file-entry", MANIFEST_NAMESPACE);
+        writer.writeAttribute(MANIFEST_PREFIX, MANIFEST_NAMESPACE, "full-path", fullPath);
+        writer.writeAttribute(MANIFEST_PREFIX, MANIFEST_NAMESPACE, "media-type", mediaType);
+    }
+
+    private static String getMediaType(HashcodeDataFile dataFile) {
+        return dataFile.getMimeType() != null
+                ? MimeTypeUtil.fromMimeTypeString(dataFile.getMimeType()).getMimeTypeString()
+                : MimeTypeEnum.BINARY.getMimeTypeString();
+    }
+
     private class BytesEntryCallback extends EntryCallback {
 
         private final byte[] data;
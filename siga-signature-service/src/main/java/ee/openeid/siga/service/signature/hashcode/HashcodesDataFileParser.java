@@ -3,19 +3,20 @@ package ee.openeid.siga.service.signature.hashcode;
 import ee.openeid.siga.common.exception.DuplicateDataFileException;
 import ee.openeid.siga.common.exception.InvalidContainerException;
 import ee.openeid.siga.common.util.Base64Util;
-import eu.europa.esig.dss.xml.utils.DomUtils;
+import ee.openeid.siga.service.signature.util.XmlStreamUtil;
 import org.apache.commons.lang3.StringUtils;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class HashcodesDataFileParser {
+    private static final int FILE_ENTRY_DEPTH = 2;
 
     private byte[] hashcodesDataFile;
     private Map<String, HashcodesEntry> entries = new LinkedHashMap<>();
+    private int depth;
 
 
     public HashcodesDataFileParser(byte[] hashcodesDataFile) {
@@ -28,22 +29,22 @@ public class HashcodesDataFileParser {
     }
 
     private void loadHashcodesEntries() {
-        Element root = DomUtils.buildDOM(hashcodesDataFile).getDocumentElement();
-        Node child = root.getFirstChild();
-        while (child != null) {
-            String nodeName = child.getLocalName();
-            if ("file-entry".equals(nodeName)) {
-                addFileEntry(child);
+        XmlStreamUtil.parse(hashcodesDataFile, (reader, event) -> {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                if (depth == FILE_ENTRY_DEPTH && "file-entry".equals(reader.getLocalName())) {
+                    addFileEntry(reader);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
             }
-            child = child.getNextSibling();
-        }
+        });
     }
 
-    private void addFileEntry(Node child) {
-        NamedNodeMap attributes = child.getAttributes();
-        String filePath = attributes.getNamedItem("full-path").getTextContent();
-        String hash = attributes.getNamedItem("hash").getTextContent();
-        String size = attributes.getNamedItem("size").getTextContent();
+    private void addFileEntry(XMLStreamReader reader) {
+        String filePath = reader.getAttributeValue(null, "full-path");
+        String hash = reader.getAttributeValue(null, "hash");
+        String size = reader.getAttributeValue(null, "size");
         validateParameters(filePath, hash, size);
         HashcodesEntry hashcodesEntry = new HashcodesEntry(hash, Integer.parseInt(size));
         entries.put(filePath, hashcodesEntry);
@@ -1,13 +1,12 @@
 package ee.openeid.siga.service.signature.hashcode;
 
 import ee.openeid.siga.common.exception.DuplicateDataFileException;
-import eu.europa.esig.dss.xml.utils.DomUtils;
+import ee.openeid.siga.service.signature.util.XmlStreamUtil;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import org.apache.commons.collections4.map.LinkedMap;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
@@ -16,6 +15,10 @@ public class SignatureDataFilesParser {
 
     private byte[] signature;
     private LinkedMap<String, String> entries = new LinkedMap<>();
+    private int depth;
+    private int referenceDepth;
+    private String referenceFileName;
+    private String referenceDigestAlgorithm;
 
 
     public SignatureDataFilesParser(byte[] signature) {
@@ -27,44 +30,51 @@ public class SignatureDataFilesParser {
         return entries;
     }
 
+    /**
+     * Reads the references of the signature below the root element, not looking into the content of the references
+     * other than their digest methods. The last reference is the one to the signed properties.
+     */
     private void loadDataFileEntries() {
-        Element root = DomUtils.buildDOM(signature).getDocumentElement();
-        Node child = root.getFirstChild();
-        addReferenceEntries(child);
+        XmlStreamUtil.parse(signature, (reader, event) -> {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                startElement(reader);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                endElement();
+                depth--;
+            }
+        });
         entries.remove(entries.lastKey());
     }
 
-    private void addReferenceEntries(Node child) {
-        while (child != null) {
-            String nodeName = child.getLocalName();
-            if ("Reference".equals(nodeName)) {
-                addFileEntry(child);
-            } else {
-                addReferenceEntries(child.getFirstChild());
+    private void startElement(XMLStreamReader reader) {
+        String nodeName = reader.getLocalName();
+        if (referenceFileName == null) {
+            if (depth > 1 && "Reference".equals(nodeName)) {
+                startFileEntry(reader);
             }
-            child = child.getNextSibling();
+        } else if (depth == referenceDepth + 1 && "DigestMethod".equals(nodeName)) {
+            referenceDigestAlgorithm = getDigestAlgorithm(reader);
         }
     }
 
-    private void addFileEntry(Node child) {
-        NamedNodeMap attributes = child.getAttributes();
-        String fileName = URLDecoder.decode(attributes.getNamedItem("URI").getTextContent(), StandardCharsets.UTF_8);
-        validateNotDuplicateFile(fileName);
-        child = child.getFirstChild();
-        String digestAlgorithm = "";
-        while (child != null) {
-            String nodeName = child.getLocalName();
-            if ("DigestMethod".equals(nodeName)) {
-                digestAlgorithm = getDigestAlgorithm(child);
-            }
-            child = child.getNextSibling();
+    private void endElement() {
+        if (referenceFileName != null && depth == referenceDepth) {
+            entries.put(referenceFileName, referenceDigestAlgorithm);
+            referenceFileName = null;
         }
-        entries.put(fileName, digestAlgorithm);
     }
 
-    private String getDigestAlgorithm(Node child) {
-        NamedNodeMap digestMethodAttributes = child.getAttributes();
-        String algorithm = digestMethodAttributes.getNamedItem("Algorithm").getTextContent();
+    private void startFileEntry(XMLStreamReader reader) {
+        String fileName = URLDecoder.decode(reader.getAttributeValue(null, "URI"), StandardCharsets.UTF_8);
+        validateNotDuplicateFile(fileName);
+        referenceFileName = fileName;
+        referenceDepth = depth;
+        referenceDigestAlgorithm = "";
+    }
+
+    private String getDigestAlgorithm(XMLStreamReader reader) {
+        String algorithm = reader.getAttributeValue(null, "Algorithm");
         return DigestAlgorithm.forXML(algorithm).getName();
     }
 
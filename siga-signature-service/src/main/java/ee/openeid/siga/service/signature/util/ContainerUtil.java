@@ -1,15 +1,35 @@
 package ee.openeid.siga.service.signature.util;
 
 import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
+import ee.openeid.siga.common.model.SignatureDetails;
 import ee.openeid.siga.common.model.SignatureHashcodeDataFile;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.Container;
 import org.digidoc4j.ContainerBuilder;
+import org.digidoc4j.Signature;
+import org.digidoc4j.X509Cert;
+import org.digidoc4j.exceptions.InvalidSignatureException;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.cert.CertificateEncodingException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
 import java.util.Map;
 
 public class ContainerUtil {
+    private static final String SIGNATURE_ENTRY_PREFIX = "META-INF/signatures";
+    private static final String SIGNATURE_ENTRY_SUFFIX = ".xml";
 
     private ContainerUtil() {
         throw new IllegalStateException("Utility class");
@@ -25,10 +45,99 @@ public class ContainerUtil {
     }
 
     public static Container createContainer(byte[] container, Configuration configuration) {
+        return createContainer(new ByteArrayInputStream(container), configuration);
+    }
+
+    public static Container createContainer(InputStream container, Configuration configuration) {
         return ContainerBuilder
                 .aContainer(Container.DocumentType.ASICE)
                 .withConfiguration(configuration)
-                .fromStream(new ByteArrayInputStream(container))
+                .fromStream(container)
                 .build();
     }
+
+    /**
+     * Returns the key identifying the signature in its container: the signature XML ID followed by the SHA-256 digest
+     * of the signature XML.
+     */
+    public static String getSignatureKey(Signature signature) {
+        return getSignatureKeyPrefix(signature) + Base64.getEncoder().encodeToString(DigestUtils.sha256(signature.getAdESSignature()));
+    }
+
+    /**
+     * Checks whether the signature is identified by the given key. The signature XML is only digested if the signature
+     * XML ID matches the key.
+     */
+    public static boolean hasSignatureKey(Signature signature, String signatureKey) {
+        return signatureKey != null
+                && signatureKey.startsWith(getSignatureKeyPrefix(signature))
+                && signatureKey.equals(getSignatureKey(signature));
+    }
+
+    /**
+     * Collects the details of the signature. Unlike the parsed signature, the details can be shared between threads.
+     */
+    public static SignatureDetails getSignatureDetails(Signature signature) {
+        try {
+            return SignatureDetails.builder()
+                    .id(signature.getId())
+                    .signerInfo(signature.getSigningCertificate().getSubjectName())
+                    .signatureProfile(signature.getProfile().name())
+                    .signingCertificate(encodeCertificate(signature.getSigningCertificate()))
+                    .claimedSigningTime(formatTime(signature.getClaimedSigningTime()))
+                    .trustedSigningTime(formatTime(signature.getTrustedSigningTime()))
+                    .ocspCertificate(encodeCertificate(signature.getOCSPCertificate()))
+                    .ocspResponseCreationTime(formatTime(signature.getOCSPResponseCreationTime()))
+                    .timeStampCreationTime(formatTime(signature.getTimeStampCreationTime()))
+                    .timeStampTokenCertificate(encodeCertificate(signature.getTimeStampTokenCertificate()))
+                    .city(signature.getCity())
+                    .countryName(signature.getCountryName())
+                    .postalCode(signature.getPostalCode())
+                    .stateOrProvince(signature.getStateOrProvince())
+                    .roles(Collections.unmodifiableList(new ArrayList<>(signature.getSignerRoles())))
+                    .build();
+        } catch (CertificateEncodingException e) {
+            throw new InvalidSignatureException();
+        }
+    }
+
+    private static String encodeCertificate(X509Cert certificate) throws CertificateEncodingException {
+        return certificate == null ? null : Base64.getEncoder().encodeToString(certificate.getX509Certificate().getEncoded());
+    }
+
+    private static String formatTime(Date time) {
+        return time == null ? null : time.toInstant().toString();
+    }
+
+    /**
+     * Adds the signature document to the ASiC-E container as a new {@code META-INF/signatures*.xml} entry. Existing
+     * entries are copied without decompressing them. The manifest of an ASiC-E container only lists data files, so it
+     * is copied unchanged.
+     */
+    public static byte[] appendSignature(byte[] container, byte[] signatureDocument) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(container.length + signatureDocument.length);
+        try (SeekableInMemoryByteChannel byteChannel = new SeekableInMemoryByteChannel(container);
+             ZipFile zipFile = new ZipFile(byteChannel);
+             ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(outputStream)) {
+            Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry entry = entries.nextElement();
+                zipOutputStream.addRawArchiveEntry(entry, zipFile.getRawInputStream(entry));
+            }
+            int signatureIndex = 0;
+            while (zipFile.getEntry(SIGNATURE_ENTRY_PREFIX + signatureIndex + SIGNATURE_ENTRY_SUFFIX) != null) {
+                signatureIndex++;
+            }
+            ZipArchiveEntry signatureEntry = new ZipArchiveEntry(SIGNATURE_ENTRY_PREFIX + signatureIndex + SIGNATURE_ENTRY_SUFFIX);
+            signatureEntry.setMethod(ZipArchiveEntry.DEFLATED);
+            zipOutputStream.putArchiveEntry(signatureEntry);
+            zipOutputStream.write(signatureDocument);
+            zipOutputStream.closeArchiveEntry();
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static String getSignatureKeyPrefix(Signature signature) {
+        return signature.getId() + ":";
+    }
 }
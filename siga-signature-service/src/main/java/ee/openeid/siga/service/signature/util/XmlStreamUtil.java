@@ -0,0 +1,101 @@
+package ee.openeid.siga.service.signature.util;
+
+import ee.openeid.siga.common.exception.TechnicalException;
+import eu.europa.esig.dss.model.DSSException;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming XML reading and writing. Reading has the same restrictions as the DOM parser of DSS: DTDs and external
+ * entities are not allowed. Parsing errors are reported as {@link DSSException}, as done by the DOM parser.
+ */
+public class XmlStreamUtil {
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private XmlStreamUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static void parse(byte[] xml, XmlStreamHandler handler) {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml));
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.DTD) {
+                    throw new DSSException("Unable to parse XML: DOCTYPE is not allowed");
+                }
+                handler.handle(reader, event);
+            }
+        } catch (XMLStreamException e) {
+            throw new DSSException("Unable to parse XML: " + e.getMessage(), e);
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * Writes an UTF-8 encoded XML document to the output stream without closing it. The XML declaration is written
+     * as given, as the streaming writer has no means to declare a standalone document.
+     */
+    public static void write(OutputStream outputStream, String xmlDeclaration, XmlStreamWriterHandler handler) {
+        try {
+            outputStream.write(xmlDeclaration.getBytes(StandardCharsets.UTF_8));
+            XMLStreamWriter writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(outputStream, StandardCharsets.UTF_8.name());
+            handler.handle(writer);
+            writer.writeEndDocument();
+            writer.flush();
+            writer.close();
+        } catch (IOException | XMLStreamException e) {
+            throw new TechnicalException("Unable to write XML", e);
+        }
+    }
+
+    private static void close(XMLStreamReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new DSSException("Unable to parse XML: " + e.getMessage(), e);
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        trySetProperty(factory, XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        trySetProperty(factory, XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        return factory;
+    }
+
+    private static void trySetProperty(XMLInputFactory factory, String name, Object value) {
+        if (factory.isPropertySupported(name)) {
+            factory.setProperty(name, value);
+        }
+    }
+
+    @FunctionalInterface
+    public interface XmlStreamHandler {
+        void handle(XMLStreamReader reader, int event) throws XMLStreamException;
+    }
+
+    @FunctionalInterface
+    public interface XmlStreamWriterHandler {
+        void handle(XMLStreamWriter writer) throws XMLStreamException;
+    }
+}
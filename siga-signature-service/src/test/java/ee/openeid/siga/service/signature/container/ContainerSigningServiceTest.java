@@ -4,6 +4,7 @@ import ee.openeid.siga.common.auth.SigaUserDetails;
 import ee.openeid.siga.common.exception.InvalidSessionDataException;
 import ee.openeid.siga.common.model.*;
 import ee.openeid.siga.common.session.Session;
+import ee.openeid.siga.common.session.SessionStatus;
 import ee.openeid.siga.common.session.SignatureSession;
 import ee.openeid.siga.service.signature.mobileid.InitMidSignatureResponse;
 import ee.openeid.siga.service.signature.mobileid.MobileIdApiClient;
@@ -14,8 +15,14 @@ import ee.openeid.siga.service.signature.smartid.SmartIdApiClient;
 import ee.openeid.siga.service.signature.smartid.SmartIdSessionStatus;
 import ee.openeid.siga.service.signature.smartid.SmartIdStatusResponse;
 import ee.openeid.siga.service.signature.test.RequestUtil;
+import ee.openeid.siga.session.InMemorySessionStore;
 import ee.openeid.siga.session.SessionService;
+import ee.openeid.siga.session.SessionSizeLimiter;
+import ee.openeid.siga.session.configuration.SessionConfigurationProperties;
+import ee.openeid.siga.session.configuration.SessionSizeLimitProperties;
+import ee.openeid.siga.session.configuration.SessionStoreProperties;
 import ee.sk.smartid.SmartIdCertificate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.SneakyThrows;
 import org.digidoc4j.DataToSign;
 import org.digidoc4j.DigestAlgorithm;
@@ -27,6 +34,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -34,7 +42,12 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
+import static ee.openeid.siga.common.session.ProcessingStatus.RESULT;
 import static ee.openeid.siga.service.signature.test.RequestUtil.*;
 import static java.time.Duration.ZERO;
 import static org.awaitility.Awaitility.await;
@@ -49,6 +62,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 
 public abstract class ContainerSigningServiceTest {
+    private static final String SIGNATURE_ID = "2c3d2fb4-5e77-4a4a-9c7c-3c2b5d3e1f10";
 
     private static final String SIG_ID = "sig123";
     protected final PKCS12SignatureToken pkcs12Esteid2018SignatureToken = new PKCS12SignatureToken("src/test/resources/p12/sign_ECC_from_TEST_of_ESTEID2018.p12", "1234".toCharArray());
@@ -69,6 +83,7 @@ public abstract class ContainerSigningServiceTest {
         Mockito.lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
         Mockito.lenient().when(authentication.getPrincipal()).thenReturn(SigaUserDetails.builder().build());
         SecurityContextHolder.setContext(securityContext);
+        Mockito.lenient().when(sessionService.tryLock(anyString(), any())).thenReturn(Optional.of(() -> {}));
     }
 
     protected void assertCreateDataToSignSuccessful() {
@@ -174,12 +189,16 @@ public abstract class ContainerSigningServiceTest {
                         .dataFilesHash(getSigningService().generateDataFilesHash(session))
                         .build());
 
+        mockSignatureSessionUpdate(session);
+
         getSigningService().pollMobileIdSignatureStatus(session.getSessionId(), dataToSign.getSignatureParameters().getSignatureId(), ZERO);
 
         await().atMost(FIVE_SECONDS)
                 .untilAsserted(() -> assertEquals("SIGNATURE",
                         getSigningService().getMobileIdSignatureStatus(CONTAINER_ID, dataToSign.getSignatureParameters().getSignatureId())));
-        Mockito.verify(sessionService, Mockito.times(2)).update(session);
+        Mockito.verify(sessionService, Mockito.times(1))
+                .updateSignatureSession(eq(session.getSessionId()), eq(dataToSign.getSignatureParameters().getSignatureId()), any());
+        Mockito.verify(sessionService, Mockito.times(1)).update(session);
         Mockito.verify(containerSigningService, Mockito.times(1)).finalizeSignature(eq(session), anyString(), any());
     }
 
@@ -216,7 +235,61 @@ public abstract class ContainerSigningServiceTest {
             assertEquals(SmartIdSessionStatus.OK.getSigaCertificateMessage(), certificateStatus.getStatus());
             assertEquals(DOCUMENT_NUMBER, certificateStatus.getDocumentNumber());
         });
-        Mockito.verify(sessionService, Mockito.times(2)).update(session);
+        Mockito.verify(sessionService, Mockito.times(2)).updateCertificateSessions(session);
+        Mockito.verify(sessionService, Mockito.never()).update(session);
+    }
+
+    @SneakyThrows
+    protected void assertCertificateStatusPollingKeepsConcurrentSignatureStatus() {
+        Mockito.when(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).thenReturn(createDefaultUserDetails());
+        SessionService inMemorySessionService = createInMemorySessionService();
+        ThreadPoolTaskExecutor pollingExecutor = new ThreadPoolTaskExecutor();
+        pollingExecutor.setCorePoolSize(2);
+        pollingExecutor.initialize();
+        getSigningService().setTaskExecutor(pollingExecutor);
+        Session session = getSessionHolder();
+        session.addSignatureSession(SIGNATURE_ID, SignatureSession.builder()
+                .relyingPartyInfo(SmartIdSigningDelegate.getRelyingPartyInfo())
+                .dataToSign(new DataToSign(new byte[]{1}, null))
+                .signingType(SigningType.SMART_ID)
+                .sessionCode("2342384932")
+                .build());
+        inMemorySessionService.update(session);
+        SessionService storedSessionService = Mockito.spy(inMemorySessionService);
+        getSigningService().setSessionService(storedSessionService);
+        SmartIdCertificate smartIdCertificate = new SmartIdCertificate();
+        smartIdCertificate.setCertificate(pkcs12Esteid2018SignatureToken.getCertificate());
+        smartIdCertificate.setDocumentNumber(DOCUMENT_NUMBER);
+        Mockito.when(smartIdApiClient.getCertificateStatus(any(), any())).thenReturn(SmartIdStatusResponse.builder()
+                .status(SmartIdSessionStatus.OK)
+                .smartIdCertificate(smartIdCertificate)
+                .build());
+        Mockito.when(smartIdApiClient.getSignatureStatus(any(), any())).thenReturn(SmartIdStatusResponse.builder()
+                .status(SmartIdSessionStatus.OK)
+                .signature(new byte[]{2})
+                .build());
+
+        // The signature status is polled and stored after the certificate status poll has read its session
+        AtomicInteger sessionReads = new AtomicInteger();
+        Mockito.doAnswer(invocation -> {
+            Object readSession = invocation.callRealMethod();
+            if (sessionReads.incrementAndGet() == 2) {
+                getSigningService().pollSmartIdSignatureStatus(CONTAINER_SESSION_ID, SIGNATURE_ID, ZERO);
+                await().atMost(FIVE_SECONDS).until(() -> getStoredSignatureStatus(storedSessionService).getProcessingStatus() == RESULT);
+            }
+            return readSession;
+        }).when(storedSessionService).getContainerBySessionId(CONTAINER_SESSION_ID);
+
+        getSigningService().pollSmartIdCertificateStatus(CONTAINER_SESSION_ID, CERTIFICATE_ID, ZERO);
+
+        await().atMost(FIVE_SECONDS).untilAsserted(() -> {
+            Session storedSession = storedSessionService.getContainerBySessionId(CONTAINER_SESSION_ID);
+            assertEquals(RESULT, storedSession.getCertificateSession(CERTIFICATE_ID).getSessionStatus().getProcessingStatus());
+            assertNotNull(storedSession.getCertificate(DOCUMENT_NUMBER));
+        });
+        assertEquals(SmartIdSessionStatus.OK.getSigaSigningMessage(), getStoredSignatureStatus(storedSessionService).getStatus());
+        Mockito.verify(storedSessionService, Mockito.never()).update(any());
+        pollingExecutor.shutdown();
     }
 
     protected void assertSuccessfulSmartIdSigningWithoutSessionCert() {
@@ -269,6 +342,7 @@ public abstract class ContainerSigningServiceTest {
                 .signature(signature)
                 .build();
         Mockito.when(smartIdApiClient.getSignatureStatus(any(), any())).thenReturn(statusResponse);
+        mockSignatureSessionUpdate(sessionHolder);
         getSigningService().pollSmartIdSignatureStatus(sessionHolder.getSessionId(), dataToSign.getSignatureParameters().getSignatureId(), ZERO);
 
         await().atMost(FIVE_SECONDS)
@@ -276,7 +350,9 @@ public abstract class ContainerSigningServiceTest {
                         getSigningService().getSmartIdSignatureStatus(CONTAINER_ID, dataToSign.getSignatureParameters().getSignatureId())));
 
         ArgumentCaptor<Session> sessionCaptor = ArgumentCaptor.forClass(Session.class);
-        Mockito.verify(sessionService, Mockito.times(3)).update(sessionCaptor.capture());
+        Mockito.verify(sessionService, Mockito.times(1))
+                .updateSignatureSession(eq(sessionHolder.getSessionId()), eq(dataToSign.getSignatureParameters().getSignatureId()), any());
+        Mockito.verify(sessionService, Mockito.times(2)).update(sessionCaptor.capture());
         Session updatedSession = sessionCaptor.getValue();
         MatcherAssert.assertThat(updatedSession, equalTo(sessionHolder));
         Mockito.verify(containerSigningService, Mockito.times(1)).finalizeSignature(eq(sessionHolder), anyString(), any());
@@ -373,6 +449,17 @@ public abstract class ContainerSigningServiceTest {
                 .build();
     }
 
+    private static SessionStatus getStoredSignatureStatus(SessionService sessionService) {
+        return sessionService.getContainerBySessionId(CONTAINER_SESSION_ID).getSignatureSession(SIGNATURE_ID).getSessionStatus();
+    }
+
+    private static SessionService createInMemorySessionService() {
+        SessionConfigurationProperties sessionConfigurationProperties = new SessionConfigurationProperties();
+        return new SessionService(new InMemorySessionStore(new SessionStoreProperties(), List.of()),
+                new SessionSizeLimiter(new SessionSizeLimitProperties(), sessionConfigurationProperties, new SimpleMeterRegistry()),
+                sessionConfigurationProperties);
+    }
+
     protected abstract ContainerSigningService getSigningService();
 
     protected abstract String getExpectedDataToSignPrefix();
@@ -381,6 +468,14 @@ public abstract class ContainerSigningServiceTest {
 
     protected abstract Session mockMobileIdSessionHolder(DataToSign dataToSign) throws IOException, URISyntaxException;
 
+    private void mockSignatureSessionUpdate(Session session) {
+        Mockito.when(sessionService.updateSignatureSession(eq(session.getSessionId()), anyString(), any())).thenAnswer(invocation -> {
+            SignatureSession signatureSession = session.getSignatureSessions().get(invocation.<String>getArgument(1));
+            Predicate<SignatureSession> update = invocation.getArgument(2);
+            return signatureSession != null && update.test(signatureSession);
+        });
+    }
+
     protected abstract Session mockSmartIdSessionHolder(DataToSign dataToSign) throws IOException, URISyntaxException;
 
     protected abstract Session getSessionHolder() throws IOException, URISyntaxException;
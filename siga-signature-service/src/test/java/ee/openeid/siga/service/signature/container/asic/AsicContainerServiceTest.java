@@ -8,14 +8,18 @@ import ee.openeid.siga.common.exception.InvalidContainerException;
 import ee.openeid.siga.common.exception.InvalidSessionDataException;
 import ee.openeid.siga.common.exception.ResourceNotFoundException;
 import ee.openeid.siga.common.model.ContainerInfo;
-import ee.openeid.siga.common.model.DataFile;
 import ee.openeid.siga.common.model.Result;
 import ee.openeid.siga.common.model.Signature;
+import ee.openeid.siga.common.session.AsicContainerIndex;
 import ee.openeid.siga.common.session.AsicContainerSession;
 import ee.openeid.siga.common.session.Session;
+import ee.openeid.siga.service.signature.configuration.DataFileStorageProperties;
+import ee.openeid.siga.service.signature.configuration.ParsedContainerCacheProperties;
 import ee.openeid.siga.service.signature.test.RequestUtil;
 import ee.openeid.siga.service.signature.test.TestUtil;
 import ee.openeid.siga.session.SessionService;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.FileDocument;
 import org.apache.commons.lang3.StringUtils;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.Container;
@@ -25,6 +29,7 @@ import org.digidoc4j.Timestamp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.ArgumentCaptor;
@@ -37,6 +42,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -44,11 +50,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import static ee.openeid.siga.service.signature.test.RequestUtil.CLIENT_NAME;
 import static ee.openeid.siga.service.signature.test.RequestUtil.CONTAINER_ID;
@@ -63,7 +72,9 @@ import static org.digidoc4j.Container.DocumentType.ASICE;
 import static org.digidoc4j.Container.DocumentType.ASICS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -85,6 +96,8 @@ class AsicContainerServiceTest {
 
     @Spy
     private Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+    @Spy
+    private ParsedContainerCache parsedContainerCache = new ParsedContainerCache(configuration, new ParsedContainerCacheProperties());
 
     @Captor
     private ArgumentCaptor<Session> sessionCaptor;
@@ -106,7 +119,7 @@ class AsicContainerServiceTest {
 
     @Test
     void successfulCreateContainer() {
-        List<DataFile> dataFiles = createDataFileListWithOneFile();
+        List<org.digidoc4j.DataFile> dataFiles = createDataFileListWithOneFile();
 
         String containerId = containerService.createContainer("test.asice", dataFiles);
         assertFalse(StringUtils.isBlank(containerId));
@@ -114,7 +127,7 @@ class AsicContainerServiceTest {
 
     @Test
     void successfulUploadContainer() throws Exception {
-        String container = new String(Base64.getEncoder().encode(TestUtil.getFileInputStream(VALID_ASICE).readAllBytes()));
+        InputStream container = TestUtil.getFileInputStream(VALID_ASICE);
         String containerId = containerService.uploadContainer("test.asice", container);
         assertFalse(StringUtils.isBlank(containerId));
     }
@@ -123,11 +136,49 @@ class AsicContainerServiceTest {
     void successfulGetContainer() throws Exception {
         Mockito.when(sessionService.getContainer(any())).thenReturn(RequestUtil.createAsicSessionHolder());
         ContainerInfo containerInfo = containerService.getContainer(CONTAINER_ID);
-        InputStream inputStream = new ByteArrayInputStream(Base64.getDecoder().decode(containerInfo.getContainer().getBytes()));
+        InputStream inputStream = new ByteArrayInputStream(containerInfo.getContainer());
         Container container = ContainerBuilder.aContainer(ASICE).fromStream(inputStream).build();
         assertEquals(1, container.getSignatures().size());
     }
 
+    @Test
+    void createContainerStoresContainerIndex() {
+        containerService.createContainer("test.asice", createDataFileListWithOneFile());
+
+        Mockito.verify(sessionService).update(sessionCaptor.capture());
+        AsicContainerIndex containerIndex = ((AsicContainerSession) sessionCaptor.getValue()).getContainerIndex();
+        assertEquals("ASICE", containerIndex.getContainerType());
+        assertEquals(1, containerIndex.getDataFiles().size());
+        assertEquals("test.txt", containerIndex.getDataFiles().get(0).getFileName());
+        assertEquals(32, containerIndex.getDataFiles().get(0).getFileSize());
+        assertEquals("iUMu2w5mb28FL0Oh19uaGMgzf6rRrpGRmtA9G7HhpK4=", containerIndex.getDataFiles().get(0).getFileHashSha256());
+        assertTrue(containerIndex.getSignatures().isEmpty());
+    }
+
+    @Test
+    void getSignaturesServedFromContainerIndex() {
+        Signature signature = new Signature();
+        signature.setId("S0");
+        signature.setGeneratedSignatureId("generated_signature_id");
+        AsicContainerIndex containerIndex = new AsicContainerIndex();
+        containerIndex.setContainerType("ASICE");
+        containerIndex.getSignatures().add(signature);
+        AsicContainerSession session = AsicContainerSession.builder()
+                .sessionId(CONTAINER_SESSION_ID)
+                .clientName(CLIENT_NAME)
+                .serviceName(SERVICE_NAME)
+                .serviceUuid(SERVICE_UUID)
+                .containerName("test.asice")
+                .container(new byte[]{1, 2, 3})
+                .containerIndex(containerIndex)
+                .build();
+        Mockito.when(sessionService.getContainer(any())).thenReturn(session);
+
+        List<Signature> signatures = containerService.getSignatures(CONTAINER_ID);
+
+        assertEquals(List.of(signature), signatures);
+    }
+
     @Test
     void successfulGetSignatures() throws IOException, URISyntaxException {
         Mockito.when(sessionService.getContainer(any())).thenReturn(RequestUtil.createAsicSessionHolder());
@@ -180,7 +231,7 @@ class AsicContainerServiceTest {
     void successfulGetSignature() throws IOException, URISyntaxException {
         AsicContainerSession session = createAsicSessionHolder();
         AtomicReference<String> signatureId = new AtomicReference<>();
-        session.getSignatureIdHolder().forEach((sigId, integer) -> signatureId.set(sigId));
+        session.getSignatureIdHolder().forEach((sigId, signatureKey) -> signatureId.set(sigId));
         Mockito.when(sessionService.getContainer(any())).thenReturn(session);
 
         org.digidoc4j.Signature signature = containerService.getSignature(CONTAINER_ID, signatureId.get());
@@ -264,15 +315,17 @@ class AsicContainerServiceTest {
     }
 
     @Test
-    void successfulGetDataFiles() throws IOException, URISyntaxException {
+    void processDataFilesFromParsedContainer() throws IOException, URISyntaxException {
         Mockito.when(sessionService.getContainer(any())).thenReturn(RequestUtil.createAsicSessionHolder());
-        List<DataFile> dataFiles = containerService.getDataFiles(CONTAINER_ID);
-        assertEquals("test.txt", dataFiles.get(0).getFileName());
-        assertEquals("c2VlIG9uIHRlc3RmYWls", dataFiles.get(0).getContent());
+
+        Map<String, String> dataFiles = new LinkedHashMap<>();
+        processDataFiles((fileName, content) -> dataFiles.put(fileName, new String(content.readAllBytes())));
+
+        assertEquals(Map.of("test.txt", "see on testfail"), dataFiles);
     }
 
     @Test
-    void successfulGetDataFilesFromNonCompositeAsicsContainer() {
+    void processDataFilesFromNonCompositeAsicsContainer() throws IOException {
         Container container = ContainerBuilder.aContainer(Container.DocumentType.ASICS)
                 .withConfiguration(Configuration.of(Configuration.Mode.TEST))
                 .withDataFile(new org.digidoc4j.DataFile("test content".getBytes(StandardCharsets.UTF_8),
@@ -280,37 +333,65 @@ class AsicContainerServiceTest {
         AsicContainerSession session = getContainerSession(container);
         Mockito.when(sessionService.getContainer(any())).thenReturn(session);
 
-        List<DataFile> dataFiles = containerService.getDataFiles(CONTAINER_ID);
+        Map<String, String> dataFiles = new LinkedHashMap<>();
+        processDataFiles((fileName, content) -> dataFiles.put(fileName, new String(content.readAllBytes())));
 
-        assertEquals(1, dataFiles.size());
-        assertEquals("test.xml", dataFiles.get(0).getFileName());
-        assertEquals("test content", new String(Base64.getDecoder().decode(dataFiles.get(0).getContent())));
+        assertEquals(Map.of("test.xml", "test content"), dataFiles);
     }
 
     @Test
-    void successfulGetDataFilesFromCompositeAsicsContainer() throws IOException, URISyntaxException {
+    void processDataFilesFromParsedCompositeAsicsContainer() throws IOException, URISyntaxException {
         Container container = TestUtil.getContainer(getFile(VALID_COMPOSITE_ASICS));
         AsicContainerSession session = getContainerSession(container);
         Mockito.when(sessionService.getContainer(any())).thenReturn(session);
 
-        List<DataFile> dataFiles = containerService.getDataFiles(CONTAINER_ID);
+        Map<String, String> dataFiles = new LinkedHashMap<>();
+        processDataFiles((fileName, content) -> dataFiles.put(fileName, new String(content.readAllBytes())));
 
-        assertEquals(1, dataFiles.size());
-        assertEquals("test.txt", dataFiles.get(0).getFileName());
-        assertEquals("see on testfail", new String(Base64.getDecoder().decode(dataFiles.get(0).getContent())));
+        assertEquals(Map.of("test.txt", "see on testfail"), dataFiles);
     }
 
     @Test
-    void successfulGetDataFilesFrom2ndLevelOfDeeplyNestedCompositeAsicsContainer() throws IOException, URISyntaxException {
+    void processDataFilesFrom2ndLevelOfDeeplyNestedCompositeAsicsContainer() throws IOException, URISyntaxException {
         Container container = TestUtil.getContainer(getFile("1xTST-recursive-asics-datafile.asics"));
         AsicContainerSession session = getContainerSession(container);
         Mockito.when(sessionService.getContainer(any())).thenReturn(session);
 
-        List<DataFile> dataFiles = containerService.getDataFiles(CONTAINER_ID);
+        Map<String, Integer> dataFiles = new LinkedHashMap<>();
+        processDataFiles((fileName, content) -> dataFiles.put(fileName, content.readAllBytes().length));
+
+        assertEquals(Map.of("timestamped-3.asics", 12930), dataFiles);
+    }
+
+    @Test
+    void processDataFilesFromContainerEntries() throws IOException {
+        Container container = ContainerBuilder.aContainer().withConfiguration(Configuration.of(Configuration.Mode.TEST))
+                .withDataFile(new org.digidoc4j.DataFile("test1".getBytes(), "test1.txt", "text/plain"))
+                .withDataFile(new org.digidoc4j.DataFile("test2".getBytes(), "test2.txt", "text/plain"))
+                .build();
+        AsicContainerSession session = getContainerSession(container);
+        session.setContainerIndex(AsicContainerService.createContainerIndex(container, session));
+        Mockito.when(sessionService.getContainer(any())).thenReturn(session);
+
+        Map<String, String> dataFiles = new LinkedHashMap<>();
+        processDataFiles((fileName, content) -> dataFiles.put(fileName, new String(content.readAllBytes())));
+
+        assertEquals(Map.of("test1.txt", "test1", "test2.txt", "test2"), dataFiles);
+        assertEquals(List.of("test1.txt", "test2.txt"), List.copyOf(dataFiles.keySet()));
+        Mockito.verifyNoInteractions(parsedContainerCache);
+    }
+
+    @Test
+    void processDataFilesFromCompositeAsicsContainer() throws IOException, URISyntaxException {
+        Container container = TestUtil.getContainer(getFile(VALID_COMPOSITE_ASICS));
+        AsicContainerSession session = getContainerSession(container);
+        session.setContainerIndex(AsicContainerService.createContainerIndex(container, session));
+        Mockito.when(sessionService.getContainer(any())).thenReturn(session);
+
+        Map<String, String> dataFiles = new LinkedHashMap<>();
+        processDataFiles((fileName, content) -> dataFiles.put(fileName, new String(content.readAllBytes())));
 
-        assertEquals(1, dataFiles.size());
-        assertEquals("timestamped-3.asics", dataFiles.get(0).getFileName());
-        assertEquals(12930, Base64.getDecoder().decode(dataFiles.get(0).getContent()).length);
+        assertEquals(Map.of("test.txt", "see on testfail"), dataFiles);
     }
 
     @Test
@@ -357,12 +438,48 @@ class AsicContainerServiceTest {
 
         container.getSignatures().clear();
         Mockito.when(sessionService.getContainer(any())).thenReturn(session);
-        List<DataFile> dataFiles = createDataFileListWithOneFile();
-        dataFiles.get(0).setFileName("test.pdf");
+        List<org.digidoc4j.DataFile> dataFiles = createDataFileListWithOneFile("test.pdf");
         Result result = containerService.addDataFiles(CONTAINER_ID, dataFiles);
         assertEquals(Result.OK, result);
     }
 
+    @Test
+    void createContainerWithDataFileAboveThresholdStoredViaTempFile(@TempDir Path tempDirectory) throws IOException {
+        try (DataFileDocuments dataFileDocuments = createDataFileDocuments(tempDirectory)) {
+            containerService.createContainer("test.asice", createTempFileDataFiles(dataFileDocuments));
+        }
+
+        Mockito.verify(sessionService).update(sessionCaptor.capture());
+        AsicContainerSession session = (AsicContainerSession) sessionCaptor.getValue();
+        Container container = ContainerBuilder.aContainer().fromStream(new ByteArrayInputStream(session.getContainer())).build();
+        assertEquals("test.txt", container.getDataFiles().get(0).getName());
+        assertEquals("text/plain", container.getDataFiles().get(0).getMediaType());
+        assertEquals("iUMu2w5mb28FL0Oh19uaGMgzf6rRrpGRmtA9G7HhpK4=", session.getContainerIndex().getDataFiles().get(0).getFileHashSha256());
+        try (Stream<Path> tempFiles = Files.list(tempDirectory)) {
+            assertEquals(0, tempFiles.count());
+        }
+    }
+
+    @Test
+    void addDataFileAboveThresholdStoredViaTempFile(@TempDir Path tempDirectory) throws IOException {
+        Container container = ContainerBuilder.aContainer().withConfiguration(Configuration.of(Configuration.Mode.TEST)).withDataFile(new org.digidoc4j.DataFile("D0Zzjr7TcMXFLuCtlt7I9Fn7kBwspOKFIR7d+QO/FZg".getBytes(), "test.xml", "text/plain")).build();
+        Mockito.when(sessionService.getContainer(any())).thenReturn(getContainerSession(container));
+
+        try (DataFileDocuments dataFileDocuments = createDataFileDocuments(tempDirectory)) {
+            containerService.addDataFiles(CONTAINER_ID, createTempFileDataFiles(dataFileDocuments));
+        }
+
+        Mockito.verify(sessionService).update(sessionCaptor.capture());
+        AsicContainerSession session = (AsicContainerSession) sessionCaptor.getValue();
+        Container updatedContainer = ContainerBuilder.aContainer().fromStream(new ByteArrayInputStream(session.getContainer())).build();
+        assertEquals(2, updatedContainer.getDataFiles().size());
+        assertEquals("test.txt", updatedContainer.getDataFiles().get(1).getName());
+        assertEquals("iUMu2w5mb28FL0Oh19uaGMgzf6rRrpGRmtA9G7HhpK4=", session.getContainerIndex().getDataFiles().get(1).getFileHashSha256());
+        try (Stream<Path> tempFiles = Files.list(tempDirectory)) {
+            assertEquals(0, tempFiles.count());
+        }
+    }
+
     @Test
     void successfulRemoveDataFile() {
         Container container = ContainerBuilder.aContainer().withConfiguration(Configuration.of(Configuration.Mode.TEST))
@@ -470,7 +587,7 @@ class AsicContainerServiceTest {
 
     @Test
     void uploadContainerWithInvalidContainerTypeThrows() throws IOException, URISyntaxException {
-        String container = new String(Base64.getEncoder().encode(getFile("container.ddoc")));
+        InputStream container = new ByteArrayInputStream(getFile("container.ddoc"));
 
         InvalidContainerException caughtException = assertThrows(
             InvalidContainerException.class, () -> containerService.uploadContainer("container.ddoc", container)
@@ -480,7 +597,7 @@ class AsicContainerServiceTest {
 
     @Test
     void uploadContainerWithDuplicateDataFilesThrows() throws IOException, URISyntaxException {
-        String container = new String(Base64.getEncoder().encode(getFile("asice_duplicate_data_files.asice")));
+        InputStream container = new ByteArrayInputStream(getFile("asice_duplicate_data_files.asice"));
 
         DuplicateDataFileException caughtException = assertThrows(
             DuplicateDataFileException.class, () -> containerService.uploadContainer("test.asice", container)
@@ -490,7 +607,7 @@ class AsicContainerServiceTest {
 
     @Test
     void uploadContainerWithDuplicateDataFileInManifestThrows() throws IOException, URISyntaxException {
-        String container = new String(Base64.getEncoder().encode(getFile("asice_duplicate_data_files_in_manifest.asice")));
+        InputStream container = new ByteArrayInputStream(getFile("asice_duplicate_data_files_in_manifest.asice"));
 
         DuplicateDataFileException caughtException = assertThrows(
             DuplicateDataFileException.class, () -> containerService.uploadContainer("test.asice", container)
@@ -508,8 +625,7 @@ class AsicContainerServiceTest {
         AsicContainerSession session = getContainerSession(container);
         container.getSignatures().clear();
         Mockito.when(sessionService.getContainer(any())).thenReturn(session);
-        List<DataFile> dataFiles = createDataFileListWithOneFile();
-        dataFiles.get(0).setFileName("test.xml");
+        List<org.digidoc4j.DataFile> dataFiles = createDataFileListWithOneFile("test.xml");
 
         DuplicateDataFileException caughtException = assertThrows(
             DuplicateDataFileException.class, () -> containerService.addDataFiles(CONTAINER_ID, dataFiles)
@@ -517,12 +633,32 @@ class AsicContainerServiceTest {
         assertEquals("Duplicate data files not allowed: test.xml", caughtException.getMessage());
     }
 
+    private static DataFileDocuments createDataFileDocuments(Path tempDirectory) {
+        DataFileStorageProperties dataFileStorageProperties = new DataFileStorageProperties();
+        dataFileStorageProperties.setFileThreshold(DataSize.ofBytes(16));
+        dataFileStorageProperties.setTempDirectory(tempDirectory);
+        return new DataFileDocuments(dataFileStorageProperties);
+    }
+
+    private static List<org.digidoc4j.DataFile> createTempFileDataFiles(DataFileDocuments dataFileDocuments) throws IOException {
+        byte[] content = createDataFileListWithOneFile().get(0).getBytes();
+        DSSDocument document = dataFileDocuments.createDocument(outputStream -> outputStream.write(content));
+        assertInstanceOf(FileDocument.class, document);
+        return List.of(DataFileDocuments.createDataFile("test.txt", document));
+    }
+
+    private void processDataFiles(DataFileContentConsumer consumer) throws IOException {
+        try (DataFileContents dataFiles = containerService.openDataFiles(CONTAINER_ID)) {
+            dataFiles.forEach(consumer);
+        }
+    }
+
     private byte[] getFile(String fileName) throws IOException, URISyntaxException {
         return TestUtil.getFileInputStream(fileName).readAllBytes();
     }
 
     private static AsicContainerSession getContainerSession(Container container) {
-        Map<String, Integer> signatureIdHolder = new HashMap<>();
+        Map<String, String> signatureIdHolder = new HashMap<>();
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         container.save(outputStream);
         AsicContainerSession session = AsicContainerSession.builder()
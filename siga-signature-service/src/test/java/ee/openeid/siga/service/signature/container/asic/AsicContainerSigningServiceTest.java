@@ -13,6 +13,7 @@ import ee.openeid.siga.common.session.AsicContainerSession;
 import ee.openeid.siga.common.session.Session;
 import ee.openeid.siga.common.session.SignatureSession;
 import ee.openeid.siga.service.signature.configuration.MobileIdClientConfigurationProperties;
+import ee.openeid.siga.service.signature.configuration.ParsedContainerCacheProperties;
 import ee.openeid.siga.service.signature.configuration.SessionStatusReprocessingProperties;
 import ee.openeid.siga.service.signature.configuration.SmartIdClientConfigurationProperties;
 import ee.openeid.siga.service.signature.container.ContainerSigningService;
@@ -21,8 +22,7 @@ import ee.openeid.siga.service.signature.container.MobileIdSigningDelegate;
 import ee.openeid.siga.service.signature.container.SmartIdSigningDelegate;
 import ee.openeid.siga.service.signature.test.RequestUtil;
 import ee.openeid.siga.service.signature.test.TestUtil;
-import org.apache.ignite.Ignite;
-import org.apache.ignite.IgniteSemaphore;
+import ee.openeid.siga.service.signature.util.ContainerUtil;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.Container;
 import org.digidoc4j.ContainerBuilder;
@@ -59,11 +59,8 @@ import static org.digidoc4j.Container.DocumentType.ASICE;
 import static org.digidoc4j.Container.DocumentType.ASICS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 
 @ExtendWith(MockitoExtension.class)
 class AsicContainerSigningServiceTest extends ContainerSigningServiceTest {
@@ -81,10 +78,6 @@ class AsicContainerSigningServiceTest extends ContainerSigningServiceTest {
     @Spy
     private ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
     @Mock
-    private Ignite ignite;
-    @Mock
-    private IgniteSemaphore igniteSemaphore;
-    @Mock
     private MobileIdClientConfigurationProperties mobileIdConfigurationProperties;
     @Mock
     private SmartIdClientConfigurationProperties smartIdConfigurationProperties;
@@ -92,6 +85,8 @@ class AsicContainerSigningServiceTest extends ContainerSigningServiceTest {
     private SessionStatusReprocessingProperties reprocessingProperties;
     @Spy
     private Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+    @Spy
+    private ParsedContainerCache parsedContainerCache = new ParsedContainerCache(configuration, new ParsedContainerCacheProperties());
 
     @BeforeEach
     void setUp() throws IOException, URISyntaxException {
@@ -105,9 +100,6 @@ class AsicContainerSigningServiceTest extends ContainerSigningServiceTest {
         taskExecutor.initialize();
         Mockito.lenient().when(mobileIdConfigurationProperties.getStatusPollingDelay()).thenReturn(Duration.ofSeconds(0));
         Mockito.lenient().when(smartIdConfigurationProperties.getStatusPollingDelay()).thenReturn(Duration.ofSeconds(0));
-        Mockito.lenient().when(igniteSemaphore.tryAcquire()).thenReturn(true);
-        Mockito.lenient().when(igniteSemaphore.tryAcquire(anyLong(), any())).thenReturn(true);
-        Mockito.lenient().when(ignite.semaphore(anyString(), anyInt(), anyBoolean(), anyBoolean())).thenReturn(igniteSemaphore);
     }
 
     @Test
@@ -127,7 +119,7 @@ class AsicContainerSigningServiceTest extends ContainerSigningServiceTest {
     public void noContainerInSession() {
         AsicContainerSession sessionHolder = Mockito.mock(AsicContainerSession.class);
         SignatureParameters signatureParameters = createSignatureParameters(pkcs12Esteid2018SignatureToken.getCertificate());
-        Mockito.when(sessionHolder.getContainer()).thenReturn(null);
+        Mockito.when(sessionHolder.hasContainer()).thenReturn(false);
         Mockito.when(sessionService.getContainer(CONTAINER_ID)).thenReturn(sessionHolder);
 
         InvalidSessionDataException caughtException = assertThrows(
@@ -253,6 +245,11 @@ class AsicContainerSigningServiceTest extends ContainerSigningServiceTest {
         assertSuccessfulCertificateChoiceProcessing();
     }
 
+    @Test
+    void certificateStatusPollingKeepsConcurrentSignatureStatus() {
+        assertCertificateStatusPollingKeepsConcurrentSignatureStatus();
+    }
+
     @Test
     void successfulSmartIdSigningWithSessionCert() throws IOException, URISyntaxException {
         assertSuccessfulSmartIdSigningWithSessionCert();
@@ -308,6 +305,30 @@ class AsicContainerSigningServiceTest extends ContainerSigningServiceTest {
         assertSameDataButDifferentFileNameGeneratesDifferentHash();
     }
 
+    @Test
+    void generateDataFilesHash_fromContainerIndexMatchesHashOfParsedContainer() {
+        AsicContainerSession session = new SimpleAsicContainerSessionBuilder()
+                .addDataFile("test1.txt", "test1")
+                .addDataFile("test2.txt", "test2")
+                .build();
+        String dataFilesHash = signingService.generateDataFilesHash(session);
+        session.setContainerIndex(AsicContainerService.createContainerIndex(ContainerUtil.createContainer(session.getContainer(), configuration), session));
+        session.setContainer(new byte[]{1, 2, 3});
+
+        assertEquals(dataFilesHash, signingService.generateDataFilesHash(session));
+    }
+
+    @Test
+    void verifySigningObjectExistence_storedContainerNotLoaded() {
+        AsicContainerSession session = new SimpleAsicContainerSessionBuilder()
+                .addDataFile("test1.txt", "test1")
+                .build();
+        session.setContainerIndex(AsicContainerService.createContainerIndex(ContainerUtil.createContainer(session.getContainer(), configuration), session));
+        session.setContainerData("version1", 1, () -> fail("Container must not be loaded"));
+
+        signingService.verifySigningObjectExistence(session);
+    }
+
     @Test
     void finalizeSignatureWithContainerDataFilesChangedThrows() {
         InvalidSessionDataException caughtException = assertThrows(
@@ -1,7 +1,10 @@
 package ee.openeid.siga.service.signature.container.asic;
 
+import ee.openeid.siga.common.event.SigaEvent;
 import ee.openeid.siga.common.event.SigaEventLogger;
+import ee.openeid.siga.common.event.SigaEventName;
 import ee.openeid.siga.common.exception.InvalidSessionDataException;
+import ee.openeid.siga.service.signature.configuration.AugmentationValidationProperties;
 import eu.europa.esig.dss.enumerations.MimeTypeEnum;
 import eu.europa.esig.dss.spi.x509.tsp.TimestampToken;
 import org.digidoc4j.Configuration;
@@ -20,14 +23,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static ee.openeid.siga.service.signature.test.RequestUtil.ESEAL_WITH_EXPIRED_OCSP;
 import static ee.openeid.siga.service.signature.test.RequestUtil.INVALID_ASICE_LTA_WITH_EXPIRED_SIGNER_AND_OCSP;
@@ -44,6 +51,8 @@ import static ee.openeid.siga.service.signature.test.TestUtil.getFile;
 import static ee.openeid.siga.service.signature.test.TestUtil.pkcs12Esteid2018SignatureToken;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
@@ -67,7 +76,8 @@ class AsiceContainerAugmentationServiceTest {
         augmentationService = new AsiceContainerAugmentationService(
                 configuration,
                 euConfiguration,
-                eventLogger
+                eventLogger,
+                new AugmentationValidationProperties()
         );
     }
 
@@ -86,6 +96,24 @@ class AsiceContainerAugmentationServiceTest {
         assertEquals(1, archiveTimestamps.size(), "The signature must contain 1 archive timestamp");
     }
 
+    @Test
+    void containerWithLtSignature_ValidationPhasesLoggedAsEvents() throws IOException {
+        Container container = createSignedContainer(SignatureProfile.LT);
+        byte[] containerBytes = getBytesFromContainer(container);
+
+        augmentationService.augmentContainer(containerBytes, getContainer(containerBytes), "originalContainer");
+
+        ArgumentCaptor<SigaEvent> eventCaptor = ArgumentCaptor.forClass(SigaEvent.class);
+        Mockito.verify(eventLogger, Mockito.atLeastOnce()).logEvent(eventCaptor.capture());
+        List<String> validationEvents = eventCaptor.getAllValues().stream()
+                .filter(event -> event.getEventName() == SigaEventName.AUGMENTATION_CONTAINER_PARSING
+                        || event.getEventName() == SigaEventName.AUGMENTATION_CONTAINER_VALIDATION)
+                .peek(event -> assertNotNull(event.getDuration()))
+                .map(event -> event.getEventName() + ":" + event.getEventParameter(SigaEventName.EventParam.VALIDATION_CONFIGURATION))
+                .toList();
+        assertEquals(List.of("AUGMENTATION_CONTAINER_VALIDATION:EE", "AUGMENTATION_CONTAINER_PARSING:EU", "AUGMENTATION_CONTAINER_VALIDATION:EU"), validationEvents);
+    }
+
     @Test
     void containerWithMultipleLtSignatures_ReturnsAsiceWithAllSignaturesAugmented() throws IOException {
         Container container = createSignedContainer(SignatureProfile.LT);
@@ -395,6 +423,29 @@ class AsiceContainerAugmentationServiceTest {
         assertEquals(SignatureProfile.LT, augmentedContainer.getSignatures().get(1).getProfile());
     }
 
+    @Test
+    void validationOnCallingThread_RestoresCallerLoggingContext() {
+        MDC.setContextMap(Map.of("requestId", "submitter"));
+        Supplier<String> validation = AsiceContainerAugmentationService.withLoggingContext(() -> MDC.get("requestId"));
+        MDC.setContextMap(Map.of("requestId", "caller"));
+        try {
+            assertEquals("submitter", validation.get());
+            assertEquals("caller", MDC.get("requestId"));
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    @Test
+    void validationOnThreadWithoutLoggingContext_LeavesLoggingContextEmpty() {
+        MDC.setContextMap(Map.of("requestId", "submitter"));
+        Supplier<String> validation = AsiceContainerAugmentationService.withLoggingContext(() -> MDC.get("requestId"));
+        MDC.clear();
+
+        assertEquals("submitter", validation.get());
+        assertNull(MDC.getCopyOfContextMap());
+    }
+
     private List<TimestampToken> getSignatureArchiveTimestamps(Container container, int signatureIndex) {
         return ((AsicSignature) container.getSignatures().get(signatureIndex)).getOrigin().getDssSignature().getArchiveTimestamps();
     }
@@ -0,0 +1,116 @@
+package ee.openeid.siga.service.signature.container.asic;
+
+import ee.openeid.siga.common.session.AsicContainerIndex;
+import ee.openeid.siga.common.session.AsicContainerSession;
+import ee.openeid.siga.service.signature.configuration.ParsedContainerCacheProperties;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.ContainerBuilder;
+import org.digidoc4j.DataFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.digidoc4j.Container.DocumentType.ASICE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ParsedContainerCacheTest {
+    private static final String SESSION_ID = "v1_a7fd7728-a3ea-4975-bfab-f240a67e894f_container";
+
+    private ParsedContainerCache parsedContainerCache;
+    private byte[] containerBytes;
+
+    @BeforeEach
+    void setUp() {
+        Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+        parsedContainerCache = new ParsedContainerCache(configuration, new ParsedContainerCacheProperties());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ContainerBuilder.aContainer(ASICE)
+                .withConfiguration(configuration)
+                .withDataFile(new DataFile("test content".getBytes(StandardCharsets.UTF_8), "test.txt", "text/plain"))
+                .build()
+                .save(outputStream);
+        containerBytes = outputStream.toByteArray();
+    }
+
+    @Test
+    void containerParsedOncePerVersion() {
+        AsicContainerIndex containerIndex = parsedContainerCache.get(createStoredSession("version1"));
+
+        assertSame(containerIndex, parsedContainerCache.get(createStoredSession("version1")));
+        assertEquals("ASICE", containerIndex.getContainerType());
+        assertEquals("test.txt", containerIndex.getDataFiles().get(0).getFileName());
+        assertEquals(12, containerIndex.getDataFiles().get(0).getFileSize());
+        assertTrue(containerIndex.getSignatures().isEmpty());
+    }
+
+    @Test
+    void sessionContainerIndexServedWithoutParsing() {
+        AsicContainerSession session = createStoredSession("version1");
+        AsicContainerIndex sessionContainerIndex = parsedContainerCache.get(createStoredSession("version1"));
+        session.setContainerIndex(sessionContainerIndex);
+        session.setContainerData("version1", 1, () -> fail("Container must not be loaded"));
+        parsedContainerCache.invalidate(SESSION_ID);
+
+        assertSame(sessionContainerIndex, parsedContainerCache.get(session));
+    }
+
+    @Test
+    void sessionContainerIndexWithoutContainerTypeReplacedByParsedIndex() {
+        AsicContainerSession session = createStoredSession("version1");
+        AsicContainerIndex sessionContainerIndex = new AsicContainerIndex();
+        session.setContainerIndex(sessionContainerIndex);
+
+        AsicContainerIndex containerIndex = parsedContainerCache.get(session);
+
+        assertNotSame(sessionContainerIndex, containerIndex);
+        assertEquals("ASICE", containerIndex.getContainerType());
+        assertEquals(1, containerIndex.getDataFiles().size());
+    }
+
+    @Test
+    void containerParsedAgainWhenVersionChanged() {
+        AsicContainerIndex containerIndex = parsedContainerCache.get(createStoredSession("version1"));
+
+        AsicContainerIndex updatedContainerIndex = parsedContainerCache.get(createStoredSession("version2"));
+
+        assertNotSame(containerIndex, updatedContainerIndex);
+        assertSame(updatedContainerIndex, parsedContainerCache.get(createStoredSession("version2")));
+    }
+
+    @Test
+    void containerParsedAgainWhenInvalidated() {
+        AsicContainerIndex containerIndex = parsedContainerCache.get(createStoredSession("version1"));
+        parsedContainerCache.invalidate(SESSION_ID);
+
+        assertNotSame(containerIndex, parsedContainerCache.get(createStoredSession("version1")));
+    }
+
+    @Test
+    void modifiedContainerNotCached() {
+        AsicContainerSession session = createStoredSession("version1");
+        AsicContainerIndex containerIndex = parsedContainerCache.get(session);
+        session.setContainer(containerBytes);
+
+        assertNotSame(containerIndex, parsedContainerCache.get(session));
+        assertSame(containerIndex, parsedContainerCache.get(createStoredSession("version1")));
+    }
+
+    private AsicContainerSession createStoredSession(String containerVersion) {
+        AsicContainerSession session = AsicContainerSession.builder()
+                .sessionId(SESSION_ID)
+                .clientName("client1")
+                .serviceName("Testimine")
+                .serviceUuid("a7fd7728-a3ea-4975-bfab-f240a67e894f")
+                .containerName("test.asice")
+                .container(containerBytes)
+                .build();
+        session.setContainerData(containerVersion, 1, () -> containerBytes);
+        return session;
+    }
+}
@@ -0,0 +1,112 @@
+package ee.openeid.siga.service.signature.container.hashcode;
+
+import ee.openeid.siga.common.model.HashcodeDataFile;
+import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
+import ee.openeid.siga.common.session.HashcodeContainerSession;
+import ee.openeid.siga.service.signature.configuration.HashcodeContainerCacheProperties;
+import ee.openeid.siga.service.signature.test.RequestUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HashcodeContainerCacheTest {
+    private static final String SESSION_ID = "v1_a7fd7728-a3ea-4975-bfab-f240a67e894f_hashcode";
+
+    private HashcodeContainerCache hashcodeContainerCache;
+    private AtomicInteger serializationCount;
+
+    @BeforeEach
+    void setUp() {
+        hashcodeContainerCache = new HashcodeContainerCache(new HashcodeContainerCacheProperties());
+        serializationCount = new AtomicInteger();
+    }
+
+    @Test
+    void containerSerializedOnceWhenNotChanged() {
+        String container = get(createSession());
+
+        assertSame(container, get(createSession()));
+        assertEquals(1, serializationCount.get());
+    }
+
+    @Test
+    void containerReturnedBase64Encoded() {
+        assertEquals(Base64.getEncoder().encodeToString(new byte[]{1}), get(createSession()));
+    }
+
+    @Test
+    void containerSerializedAgainWhenDataFileAdded() {
+        HashcodeContainerSession session = createSession();
+        String container = get(session);
+        session.getDataFiles().add(RequestUtil.createHashcodeDataFileFrom("test2.txt", "text/plain", (byte) 2));
+
+        assertNotSame(container, get(session));
+        assertEquals(2, serializationCount.get());
+    }
+
+    @Test
+    void containerSerializedAgainWhenDataFileChanged() {
+        HashcodeContainerSession session = createSession();
+        String container = get(session);
+        session.getDataFiles().get(0).setMimeType("application/octet-stream");
+
+        assertNotSame(container, get(session));
+        assertEquals(2, serializationCount.get());
+    }
+
+    @Test
+    void containerSerializedAgainWhenDataFileHashChanged() {
+        HashcodeContainerSession session = createSession();
+        String container = get(session);
+        session.getDataFiles().get(0).setFileHashSha512(session.getDataFiles().get(0).getFileHashSha256());
+
+        assertNotSame(container, get(session));
+        assertEquals(2, serializationCount.get());
+    }
+
+    @Test
+    void containerSerializedAgainWhenSignatureAdded() {
+        HashcodeContainerSession session = createSession();
+        String container = get(session);
+        HashcodeSignatureWrapper signatureWrapper = new HashcodeSignatureWrapper();
+        signatureWrapper.setGeneratedSignatureId("a8b7c6d5e4f3");
+        session.getSignatures().add(signatureWrapper);
+
+        assertNotSame(container, get(session));
+        assertSame(get(session), get(session));
+        assertEquals(2, serializationCount.get());
+    }
+
+    @Test
+    void containerSerializedAgainWhenInvalidated() {
+        String container = get(createSession());
+        hashcodeContainerCache.invalidate(SESSION_ID);
+
+        assertNotSame(container, get(createSession()));
+        assertEquals(2, serializationCount.get());
+    }
+
+    private String get(HashcodeContainerSession session) {
+        return hashcodeContainerCache.get(session, () -> new byte[]{(byte) serializationCount.incrementAndGet()});
+    }
+
+    private static HashcodeContainerSession createSession() {
+        HashcodeDataFile dataFile = RequestUtil.createHashcodeDataFileFrom("test.txt", "text/plain", (byte) 1);
+        ArrayList<HashcodeDataFile> dataFiles = new ArrayList<>();
+        dataFiles.add(dataFile);
+        return HashcodeContainerSession.builder()
+                .sessionId(SESSION_ID)
+                .clientName("client1")
+                .serviceName("Testimine")
+                .serviceUuid("a7fd7728-a3ea-4975-bfab-f240a67e894f")
+                .dataFiles(dataFiles)
+                .build();
+    }
+}
@@ -7,7 +7,10 @@ import ee.openeid.siga.common.exception.ResourceNotFoundException;
 import ee.openeid.siga.common.model.HashcodeDataFile;
 import ee.openeid.siga.common.model.Result;
 import ee.openeid.siga.common.model.Signature;
+import ee.openeid.siga.common.model.SignatureDetails;
 import ee.openeid.siga.common.session.HashcodeContainerSession;
+import ee.openeid.siga.service.signature.configuration.HashcodeContainerCacheProperties;
+import ee.openeid.siga.service.signature.configuration.ParsedSignatureCacheProperties;
 import ee.openeid.siga.service.signature.test.RequestUtil;
 import ee.openeid.siga.service.signature.test.TestUtil;
 import ee.openeid.siga.session.SessionService;
@@ -36,6 +39,7 @@ import static ee.openeid.siga.service.signature.test.RequestUtil.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -53,6 +57,12 @@ class HashcodeContainerServiceTest {
     @Spy
     private Configuration configuration = Configuration.of(Configuration.Mode.TEST);
 
+    @Spy
+    private HashcodeContainerCache hashcodeContainerCache = new HashcodeContainerCache(new HashcodeContainerCacheProperties());
+
+    @Spy
+    private ParsedSignatureCache parsedSignatureCache = new ParsedSignatureCache(configuration, new ParsedSignatureCacheProperties());
+
     @BeforeEach
     void setUp() {
         Authentication authentication = Mockito.mock(Authentication.class);
@@ -129,12 +139,43 @@ class HashcodeContainerServiceTest {
         assertEquals("SERIALNUMBER=PNOEE-38001085718, GIVENNAME=JAAK-KRISTJAN, SURNAME=JÕEORG, CN=\"JÕEORG,JAAK-KRISTJAN,38001085718\", C=EE", signatures.get(0).getSignerInfo());
     }
 
+    @Test
+    void getSignaturesFromSignatureMetadata() throws IOException, URISyntaxException {
+        HashcodeContainerSession session = createHashcodeSessionHolder();
+        Signature metadata = new Signature();
+        metadata.setId("id-a9fae00496ae203a6a8b92adbe762bd3");
+        metadata.setGeneratedSignatureId(session.getSignatures().get(0).getGeneratedSignatureId());
+        metadata.setSignatureProfile("LT");
+        metadata.setSignerInfo("CN=\"JÕEORG,JAAK-KRISTJAN,38001085718\"");
+        session.getSignatures().get(0).setMetadata(metadata);
+        session.getSignatures().get(0).setSignature("invalid".getBytes());
+        Mockito.when(sessionService.getContainer(any())).thenReturn(session);
+
+        List<Signature> signatures = containerService.getSignatures(CONTAINER_ID);
+
+        assertEquals(List.of(metadata), signatures);
+    }
+
     @Test
     void successfulGetSignature() throws IOException, URISyntaxException {
         HashcodeContainerSession session = createHashcodeSessionHolder();
         Mockito.when(sessionService.getContainer(any())).thenReturn(session);
-        org.digidoc4j.Signature signature = containerService.getSignature(CONTAINER_ID, session.getSignatures().get(0).getGeneratedSignatureId());
+        SignatureDetails signature = containerService.getSignature(CONTAINER_ID, session.getSignatures().get(0).getGeneratedSignatureId());
         assertEquals("id-a9fae00496ae203a6a8b92adbe762bd3", signature.getId());
+        assertSame(signature, containerService.getSignature(CONTAINER_ID, session.getSignatures().get(0).getGeneratedSignatureId()));
+    }
+
+    @Test
+    void uploadContainerCollectsSignatureMetadata() throws IOException, URISyntaxException {
+        String container = new String(Base64.getEncoder().encode(TestUtil.getFileInputStream(SIGNED_HASHCODE).readAllBytes()));
+        containerService.uploadContainer(container);
+
+        verifySessionServiceUpdateCalled(CONTAINER_ID, session -> {
+            Signature metadata = session.getSignatures().get(0).getMetadata();
+            assertNotNull(metadata);
+            assertEquals(session.getSignatures().get(0).getGeneratedSignatureId(), metadata.getGeneratedSignatureId());
+            assertEquals("LT", metadata.getSignatureProfile());
+        });
     }
 
     @Test
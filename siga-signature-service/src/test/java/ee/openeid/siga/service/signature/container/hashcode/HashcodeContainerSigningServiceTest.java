@@ -21,8 +21,6 @@ import ee.openeid.siga.service.signature.container.MobileIdSigningDelegate;
 import ee.openeid.siga.service.signature.container.SmartIdSigningDelegate;
 import ee.openeid.siga.service.signature.test.RequestUtil;
 import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.ignite.Ignite;
-import org.apache.ignite.IgniteSemaphore;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.DataToSign;
 import org.digidoc4j.SignatureParameters;
@@ -52,10 +50,6 @@ import static ee.openeid.siga.service.signature.test.RequestUtil.createSignature
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 
 @ExtendWith(MockitoExtension.class)
 class HashcodeContainerSigningServiceTest extends ContainerSigningServiceTest {
@@ -76,10 +70,6 @@ class HashcodeContainerSigningServiceTest extends ContainerSigningServiceTest {
     @Spy
     private ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
     @Mock
-    private Ignite ignite;
-    @Mock
-    private IgniteSemaphore igniteSemaphore;
-    @Mock
     private MobileIdClientConfigurationProperties mobileIdConfigurationProperties;
     @Mock
     private SmartIdClientConfigurationProperties smartIdConfigurationProperties;
@@ -97,9 +87,6 @@ class HashcodeContainerSigningServiceTest extends ContainerSigningServiceTest {
         Mockito.lenient().when(sigaEventLogger.logEndEventFor(any())).thenReturn(SigaEvent.builder().timestamp(0L).build());
         Mockito.lenient().when(sessionService.getContainer(CONTAINER_ID)).thenReturn(RequestUtil.createHashcodeSessionHolder());
         taskExecutor.initialize();
-        Mockito.lenient().when(igniteSemaphore.tryAcquire()).thenReturn(true);
-        Mockito.lenient().when(igniteSemaphore.tryAcquire(anyLong(), any())).thenReturn(true);
-        Mockito.lenient().when(ignite.semaphore(anyString(),anyInt(),anyBoolean(), anyBoolean())).thenReturn(igniteSemaphore);
     }
 
     @Test
@@ -214,6 +201,11 @@ class HashcodeContainerSigningServiceTest extends ContainerSigningServiceTest {
         assertSuccessfulCertificateChoiceProcessing();
     }
 
+    @Test
+    void certificateStatusPollingKeepsConcurrentSignatureStatus() {
+        assertCertificateStatusPollingKeepsConcurrentSignatureStatus();
+    }
+
     @Test
     void successfulSmartIdSigningWithSessionCert() throws IOException, URISyntaxException {
         assertSuccessfulSmartIdSigningWithSessionCert();
@@ -11,12 +11,20 @@ import ee.openeid.siga.service.signature.test.HashcodeContainerFilesHolder;
 import ee.openeid.siga.service.signature.test.RequestUtil;
 import ee.openeid.siga.service.signature.test.TestUtil;
 import org.apache.commons.lang3.StringUtils;
+import org.digidoc4j.impl.asic.manifest.AsicManifest;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import static ee.openeid.siga.service.signature.test.RequestUtil.ADDITIONAL_MANIFEST_FILENAME;
 import static ee.openeid.siga.service.signature.test.RequestUtil.ADDITIONAL_SHA256_FILENAME;
@@ -41,6 +49,9 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class HashcodeContainerTest {
+    private static final HashcodeDataFile A_PDF = RequestUtil.createHashcodeDataFileFrom("a.pdf", "application/pdf", (byte) 1);
+    private static final HashcodeDataFile B_XML = RequestUtil.createHashcodeDataFileFrom("b.xml", "application/xml", (byte) 2, (byte) 2);
+    private static final HashcodeDataFile C_TXT = RequestUtil.createHashcodeDataFileFrom("c.txt", "text/plain", (byte) 3, (byte) 3, (byte) 3);
 
     @Test
     void validHashcodeContainerCreation() throws IOException {
@@ -278,6 +289,78 @@ class HashcodeContainerTest {
         assertEquals("application/vnd.openxmlformats-officedocument.wordprocessingml.document", newContainer.getDataFiles().get(1).getMimeType());
     }
 
+    @Test
+    void fileNameWithXmlSpecialCharactersSavedAndOpened() throws IOException {
+        HashcodeContainer hashcodeContainer = new HashcodeContainer();
+        hashcodeContainer.addDataFile(RequestUtil.createHashcodeDataFileFrom("<\"test\" & 'ümlaut'>.txt", "text/plain", (byte) 1));
+        HashcodeContainer newContainer;
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            hashcodeContainer.save(outputStream);
+            newContainer = new HashcodeContainer();
+            newContainer.open(outputStream.toByteArray());
+        }
+
+        assertEquals(1, newContainer.getDataFiles().size());
+        assertEquals("<\"test\" & 'ümlaut'>.txt", newContainer.getDataFiles().get(0).getFileName());
+        assertEquals("text/plain", newContainer.getDataFiles().get(0).getMimeType());
+        assertEquals(hashcodeContainer.getDataFiles().get(0).getFileHashSha512(), newContainer.getDataFiles().get(0).getFileHashSha512());
+    }
+
+    @Test
+    void openedDataFilesKeepOrderOfFirstHashcodesFile() throws IOException {
+        Map<String, byte[]> entries = getContainerEntries(C_TXT, A_PDF, B_XML);
+        Map<String, byte[]> reorderedEntries = getContainerEntries(A_PDF, B_XML, C_TXT);
+        HashcodeContainer hashcodeContainer = new HashcodeContainer();
+
+        hashcodeContainer.open(createContainer(
+                entries.get(AsicManifest.XML_PATH),
+                entries.get(HashcodesDataFile.HASHCODES_SHA256),
+                reorderedEntries.get(HashcodesDataFile.HASHCODES_SHA512),
+                HashcodesDataFile.HASHCODES_SHA256, HashcodesDataFile.HASHCODES_SHA512));
+
+        assertEquals(List.of("c.txt", "a.pdf", "b.xml"), getFileNames(hashcodeContainer));
+    }
+
+    @Test
+    void sha512OnlyEntriesMergedIntoSha256Entries() throws IOException {
+        Map<String, byte[]> entries = getContainerEntries(C_TXT, A_PDF, B_XML);
+        Map<String, byte[]> reorderedEntries = getContainerEntries(A_PDF, B_XML, C_TXT);
+        HashcodeContainer hashcodeContainer = new HashcodeContainer();
+
+        hashcodeContainer.open(createContainer(
+                entries.get(AsicManifest.XML_PATH),
+                reorderedEntries.get(HashcodesDataFile.HASHCODES_SHA256),
+                entries.get(HashcodesDataFile.HASHCODES_SHA512),
+                HashcodesDataFile.HASHCODES_SHA512, HashcodesDataFile.HASHCODES_SHA256));
+
+        assertEquals(List.of("c.txt", "a.pdf", "b.xml"), getFileNames(hashcodeContainer));
+        List<HashcodeDataFile> expectedDataFiles = List.of(C_TXT, A_PDF, B_XML);
+        for (int i = 0; i < expectedDataFiles.size(); i++) {
+            HashcodeDataFile expectedDataFile = expectedDataFiles.get(i);
+            HashcodeDataFile dataFile = hashcodeContainer.getDataFiles().get(i);
+            assertEquals(expectedDataFile.getFileHashSha256(), dataFile.getFileHashSha256());
+            assertEquals(expectedDataFile.getFileHashSha512(), dataFile.getFileHashSha512());
+            assertEquals(expectedDataFile.getFileSize(), dataFile.getFileSize());
+        }
+    }
+
+    @Test
+    void manifestMimeTypesAttachedByFileName() throws IOException {
+        Map<String, byte[]> entries = getContainerEntries(C_TXT, A_PDF, B_XML);
+        Map<String, byte[]> reorderedEntries = getContainerEntries(B_XML, C_TXT, A_PDF);
+        HashcodeContainer hashcodeContainer = new HashcodeContainer();
+
+        hashcodeContainer.open(createContainer(
+                reorderedEntries.get(AsicManifest.XML_PATH),
+                entries.get(HashcodesDataFile.HASHCODES_SHA256),
+                entries.get(HashcodesDataFile.HASHCODES_SHA512),
+                HashcodesDataFile.HASHCODES_SHA256, HashcodesDataFile.HASHCODES_SHA512));
+
+        assertEquals(List.of("c.txt", "a.pdf", "b.xml"), getFileNames(hashcodeContainer));
+        assertEquals(List.of("text/plain", "application/pdf", "application/xml"),
+                hashcodeContainer.getDataFiles().stream().map(HashcodeDataFile::getMimeType).toList());
+    }
+
     @Test
     void couldNotAddDataFileWhenSignatureExists() throws URISyntaxException, IOException {
         HashcodeContainer hashcodeContainer = new HashcodeContainer();
@@ -439,4 +522,44 @@ class HashcodeContainerTest {
         assertEquals("Invalid hashcode container. Invalid file or directory in root level. Only mimetype file and META-INF directory allowed", caughtException.getMessage());
     }
 
+    private static List<String> getFileNames(HashcodeContainer hashcodeContainer) {
+        return hashcodeContainer.getDataFiles().stream().map(HashcodeDataFile::getFileName).toList();
+    }
+
+    private static Map<String, byte[]> getContainerEntries(HashcodeDataFile... dataFiles) throws IOException {
+        HashcodeContainer hashcodeContainer = new HashcodeContainer();
+        List.of(dataFiles).forEach(hashcodeContainer::addDataFile);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        hashcodeContainer.save(outputStream);
+
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                entries.put(entry.getName(), zipInputStream.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] createContainer(byte[] manifest, byte[] hashcodesSha256, byte[] hashcodesSha512,
+                                          String firstHashcodesFile, String secondHashcodesFile) throws IOException {
+        Map<String, byte[]> hashcodesFiles = Map.of(
+                HashcodesDataFile.HASHCODES_SHA256, hashcodesSha256,
+                HashcodesDataFile.HASHCODES_SHA512, hashcodesSha512);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            writeEntry(zipOutputStream, "mimetype", TestUtil.MIMETYPE.getBytes(StandardCharsets.UTF_8));
+            writeEntry(zipOutputStream, AsicManifest.XML_PATH, manifest);
+            writeEntry(zipOutputStream, firstHashcodesFile, hashcodesFiles.get(firstHashcodesFile));
+            writeEntry(zipOutputStream, secondHashcodesFile, hashcodesFiles.get(secondHashcodesFile));
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static void writeEntry(ZipOutputStream zipOutputStream, String name, byte[] content) throws IOException {
+        zipOutputStream.putNextEntry(new ZipEntry(name));
+        zipOutputStream.write(content);
+        zipOutputStream.closeEntry();
+    }
 }
@@ -0,0 +1,72 @@
+package ee.openeid.siga.service.signature.hashcode;
+
+import ee.openeid.siga.common.exception.DuplicateDataFileException;
+import ee.openeid.siga.common.exception.InvalidContainerException;
+import eu.europa.esig.dss.model.DSSException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HashcodesDataFileParserTest {
+    private static final String HASH = "RnKZobNWVy8u92sDL4S2j1BUzMT5qTgt6hm90TfAGRo=";
+
+    @Test
+    void fileEntriesParsedInOrder() {
+        Map<String, HashcodesEntry> entries = parse("<?xml version=\"1.0\" encoding=\"utf-8\"?><hashcodes>"
+                + "<file-entry full-path=\"b.txt\" hash=\"" + HASH + "\" size=\"189\"/>"
+                + "<file-entry full-path=\"a.txt\" hash=\"" + HASH + "\" size=\"0\"></file-entry>"
+                + "</hashcodes>");
+
+        assertEquals(List.of("b.txt", "a.txt"), List.copyOf(entries.keySet()));
+        assertEquals(HASH, entries.get("b.txt").getHash());
+        assertEquals(189, entries.get("b.txt").getSize());
+    }
+
+    @Test
+    void nestedFileEntriesIgnored() {
+        Map<String, HashcodesEntry> entries = parse("<hashcodes><group>"
+                + "<file-entry full-path=\"nested.txt\" hash=\"" + HASH + "\" size=\"1\"/>"
+                + "</group><file-entry full-path=\"test.txt\" hash=\"" + HASH + "\" size=\"1\"/></hashcodes>");
+
+        assertEquals(List.of("test.txt"), List.copyOf(entries.keySet()));
+    }
+
+    @Test
+    void fileEntryWithoutSizeFails() {
+        InvalidContainerException caughtException = assertThrows(InvalidContainerException.class,
+                () -> parse("<hashcodes><file-entry full-path=\"test.txt\" hash=\"" + HASH + "\"/></hashcodes>"));
+
+        assertEquals("Hashcodes data file is invalid", caughtException.getMessage());
+    }
+
+    @Test
+    void duplicateFileEntryFails() {
+        String fileEntry = "<file-entry full-path=\"test.txt\" hash=\"" + HASH + "\" size=\"1\"/>";
+
+        DuplicateDataFileException caughtException = assertThrows(DuplicateDataFileException.class,
+                () -> parse("<hashcodes>" + fileEntry + fileEntry + "</hashcodes>"));
+
+        assertEquals("Hashcodes data file contains duplicate entry: test.txt", caughtException.getMessage());
+    }
+
+    @Test
+    void malformedXmlFails() {
+        assertThrows(DSSException.class, () -> parse("<hashcodes><file-entry full-path=\"test.txt\"</hashcodes>"));
+    }
+
+    @Test
+    void doctypeNotAllowed() {
+        assertThrows(DSSException.class, () -> parse("<?xml version=\"1.0\"?>"
+                + "<!DOCTYPE hashcodes [<!ENTITY name \"test.txt\">]>"
+                + "<hashcodes><file-entry full-path=\"&name;\" hash=\"" + HASH + "\" size=\"1\"/></hashcodes>"));
+    }
+
+    private static Map<String, HashcodesEntry> parse(String xml) {
+        return new HashcodesDataFileParser(xml.getBytes(StandardCharsets.UTF_8)).getEntries();
+    }
+}
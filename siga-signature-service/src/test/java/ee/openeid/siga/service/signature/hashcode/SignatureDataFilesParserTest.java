@@ -0,0 +1,64 @@
+package ee.openeid.siga.service.signature.hashcode;
+
+import ee.openeid.siga.common.exception.DuplicateDataFileException;
+import eu.europa.esig.dss.model.DSSException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SignatureDataFilesParserTest {
+    private static final String SHA256 = "http://www.w3.org/2001/04/xmlenc#sha256";
+    private static final String SHA512 = "http://www.w3.org/2001/04/xmlenc#sha512";
+
+    @Test
+    void dataFileReferencesParsedWithoutSignedPropertiesReference() {
+        Map<String, String> entries = parse(signature(
+                reference("test.txt", SHA256) + reference("test%20file%2B1.txt", SHA512) + reference("#xades-id", SHA256),
+                "<ds:Object><xades:CertDigest><ds:DigestMethod Algorithm=\"" + SHA512 + "\"/></xades:CertDigest></ds:Object>"));
+
+        assertEquals(Map.of("test.txt", "SHA256", "test file+1.txt", "SHA512"), entries);
+        assertEquals("test.txt", entries.keySet().iterator().next());
+    }
+
+    @Test
+    void referenceWithoutDigestMethodHasEmptyAlgorithm() {
+        Map<String, String> entries = parse(signature(
+                "<ds:Reference URI=\"test.txt\"><ds:Transforms><ds:DigestMethod Algorithm=\"" + SHA256 + "\"/></ds:Transforms></ds:Reference>"
+                        + reference("#xades-id", SHA256), ""));
+
+        assertEquals(Map.of("test.txt", ""), entries);
+    }
+
+    @Test
+    void duplicateReferenceFails() {
+        DuplicateDataFileException caughtException = assertThrows(DuplicateDataFileException.class, () -> parse(signature(
+                reference("test.txt", SHA256) + reference("test.txt", SHA256) + reference("#xades-id", SHA256), "")));
+
+        assertEquals("Signature contains duplicate data file: test.txt", caughtException.getMessage());
+    }
+
+    @Test
+    void malformedXmlFails() {
+        assertThrows(DSSException.class, () -> parse("<ds:Signature xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\">"));
+    }
+
+    private static Map<String, String> parse(String xml) {
+        return new SignatureDataFilesParser(xml.getBytes(StandardCharsets.UTF_8)).getEntries();
+    }
+
+    private static String signature(String references, String object) {
+        return "<asic:XAdESSignatures xmlns:asic=\"http://uri.etsi.org/02918/v1.2.1#\" "
+                + "xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\" xmlns:xades=\"http://uri.etsi.org/01903/v1.3.2#\">"
+                + "<ds:Signature><ds:SignedInfo>" + references + "</ds:SignedInfo>" + object + "</ds:Signature>"
+                + "</asic:XAdESSignatures>";
+    }
+
+    private static String reference(String uri, String digestAlgorithm) {
+        return "<ds:Reference URI=\"" + uri + "\"><ds:DigestMethod Algorithm=\"" + digestAlgorithm + "\"/>"
+                + "<ds:DigestValue>AAAA</ds:DigestValue></ds:Reference>";
+    }
+}
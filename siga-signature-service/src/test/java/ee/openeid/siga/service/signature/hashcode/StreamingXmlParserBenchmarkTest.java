@@ -0,0 +1,131 @@
+package ee.openeid.siga.service.signature.hashcode;
+
+import com.sun.management.ThreadMXBean;
+import eu.europa.esig.dss.xml.utils.DomUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.w3c.dom.Node;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares allocation and throughput of the StAX parsers with the DOM parsing they replaced. Run with
+ * {@code mvn test -pl siga-signature-service -Dtest=StreamingXmlParserBenchmarkTest -Dsiga.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "siga.benchmark", matches = "true")
+class StreamingXmlParserBenchmarkTest {
+    private static final int ENTRIES = 5000;
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int ITERATIONS = 200;
+    private static final String HASH = "D0Zzjr7TcMXFLuCtlt7I9Fn7kBwspOKFIR7d+QO/FZg=";
+    private static final String SHA256 = "http://www.w3.org/2001/04/xmlenc#sha256";
+
+    @Test
+    void hashcodesDataFileParser() {
+        byte[] hashcodesDataFile = hashcodesDataFile();
+        assertEquals(ENTRIES, new HashcodesDataFileParser(hashcodesDataFile).getEntries().size());
+        assertEquals(ENTRIES, parseHashcodesWithDom(hashcodesDataFile).size());
+
+        Result dom = measure(() -> parseHashcodesWithDom(hashcodesDataFile));
+        Result stax = measure(() -> new HashcodesDataFileParser(hashcodesDataFile).getEntries());
+
+        report("Hashcodes data file", dom, stax);
+        assertTrue(stax.allocatedBytes() < dom.allocatedBytes());
+    }
+
+    @Test
+    void signatureDataFilesParser() {
+        byte[] signature = signature();
+        assertEquals(ENTRIES, new SignatureDataFilesParser(signature).getEntries().size());
+        assertEquals(ENTRIES + 1, parseReferencesWithDom(signature).size());
+
+        Result dom = measure(() -> parseReferencesWithDom(signature));
+        Result stax = measure(() -> new SignatureDataFilesParser(signature).getEntries());
+
+        report("Signature references", dom, stax);
+        assertTrue(stax.allocatedBytes() < dom.allocatedBytes());
+    }
+
+    private static List<String> parseHashcodesWithDom(byte[] hashcodesDataFile) {
+        List<String> entries = new ArrayList<>();
+        Node child = DomUtils.buildDOM(hashcodesDataFile).getDocumentElement().getFirstChild();
+        while (child != null) {
+            if ("file-entry".equals(child.getLocalName())) {
+                entries.add(child.getAttributes().getNamedItem("full-path").getTextContent()
+                        + child.getAttributes().getNamedItem("hash").getTextContent()
+                        + child.getAttributes().getNamedItem("size").getTextContent());
+            }
+            child = child.getNextSibling();
+        }
+        return entries;
+    }
+
+    private static List<String> parseReferencesWithDom(byte[] signature) {
+        List<String> entries = new ArrayList<>();
+        addReferences(DomUtils.buildDOM(signature).getDocumentElement().getFirstChild(), entries);
+        return entries;
+    }
+
+    private static void addReferences(Node child, List<String> entries) {
+        while (child != null) {
+            if ("Reference".equals(child.getLocalName())) {
+                entries.add(child.getAttributes().getNamedItem("URI").getTextContent());
+            } else {
+                addReferences(child.getFirstChild(), entries);
+            }
+            child = child.getNextSibling();
+        }
+    }
+
+    private static Result measure(Runnable parser) {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            parser.run();
+        }
+        long allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parser.run();
+        }
+        long duration = System.nanoTime() - start;
+        return new Result((threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBytes) / ITERATIONS,
+                ITERATIONS * 1_000_000_000.0 / duration);
+    }
+
+    private static void report(String document, Result dom, Result stax) {
+        System.out.printf("%s with %d entries: DOM %d bytes/op, %.1f ops/s; StAX %d bytes/op, %.1f ops/s%n", document, ENTRIES,
+                dom.allocatedBytes(), dom.operationsPerSecond(), stax.allocatedBytes(), stax.operationsPerSecond());
+    }
+
+    private static byte[] hashcodesDataFile() {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><hashcodes>");
+        for (int i = 0; i < ENTRIES; i++) {
+            xml.append("<file-entry full-path=\"file-").append(i).append(".txt\" hash=\"").append(HASH)
+                    .append("\" size=\"").append(i).append("\"/>");
+        }
+        return xml.append("</hashcodes>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] signature() {
+        StringBuilder xml = new StringBuilder("<ds:Signature xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\"><ds:SignedInfo>");
+        for (int i = 0; i < ENTRIES; i++) {
+            xml.append(reference("file-" + i + ".txt"));
+        }
+        xml.append(reference("#xades-id"));
+        return xml.append("</ds:SignedInfo></ds:Signature>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String reference(String uri) {
+        return "<ds:Reference URI=\"" + uri + "\"><ds:DigestMethod Algorithm=\"" + SHA256 + "\"/><ds:DigestValue>"
+                + HASH + "</ds:DigestValue></ds:Reference>";
+    }
+
+    private record Result(long allocatedBytes, double operationsPerSecond) {
+    }
+}
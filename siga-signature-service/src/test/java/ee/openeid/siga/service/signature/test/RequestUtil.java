@@ -1,7 +1,6 @@
 package ee.openeid.siga.service.signature.test;
 
 
-import ee.openeid.siga.common.model.DataFile;
 import ee.openeid.siga.common.model.HashcodeDataFile;
 import ee.openeid.siga.common.model.HashcodeSignatureWrapper;
 import ee.openeid.siga.common.model.MobileIdInformation;
@@ -14,12 +13,14 @@ import ee.openeid.siga.common.util.UUIDGenerator;
 import ee.openeid.siga.service.signature.client.ValidationReport;
 import ee.openeid.siga.service.signature.client.ValidationResponse;
 import ee.openeid.siga.service.signature.hashcode.HashcodeContainer;
+import ee.openeid.siga.service.signature.util.ContainerUtil;
 import ee.openeid.siga.webapp.json.ValidationConclusion;
 import eu.europa.esig.dss.enumerations.MimeTypeEnum;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.Container;
 import org.digidoc4j.ContainerBuilder;
+import org.digidoc4j.DataFile;
 import org.digidoc4j.DigestAlgorithm;
 import org.digidoc4j.Signature;
 import org.digidoc4j.SignatureParameters;
@@ -32,7 +33,6 @@ import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
@@ -97,11 +97,12 @@ public class RequestUtil {
     }
 
     public static List<DataFile> createDataFileListWithOneFile() {
+        return createDataFileListWithOneFile("test.txt");
+    }
+
+    public static List<DataFile> createDataFileListWithOneFile(String fileName) {
         List<DataFile> dataFiles = new ArrayList<>();
-        DataFile dataFile = new DataFile();
-        dataFile.setFileName("test.txt");
-        dataFile.setContent("D0Zzjr7TcMXFLuCtlt7I9Fn7kBwspOKFIR7d+QO/FZg");
-        dataFiles.add(dataFile);
+        dataFiles.add(new DataFile(Base64.getDecoder().decode("D0Zzjr7TcMXFLuCtlt7I9Fn7kBwspOKFIR7d+QO/FZg"), fileName, "text/plain"));
         return dataFiles;
     }
 
@@ -185,13 +186,13 @@ public class RequestUtil {
         certificateSessions.put(CERTIFICATE_ID, CertificateSession.builder()
                 .relyingPartyInfo(relyingPartyInfo)
                 .sessionCode("123").build());
-        Map<String, Integer> signatureIdHolder = new HashMap<>();
+        Map<String, String> signatureIdHolder = new HashMap<>();
         for (Signature signature : container.getSignatures()) {
-            signatureIdHolder.put(UUIDGenerator.generateUUID(), Arrays.hashCode(signature.getAdESSignature()));
+            signatureIdHolder.put(UUIDGenerator.generateUUID(), ContainerUtil.getSignatureKey(signature));
         }
         if (container instanceof AsicSCompositeContainer) {
             for (Signature signature : ((AsicSCompositeContainer) container).getNestedContainerSignatures()) {
-                signatureIdHolder.put(UUIDGenerator.generateUUID(), Arrays.hashCode(signature.getAdESSignature()));
+                signatureIdHolder.put(UUIDGenerator.generateUUID(), ContainerUtil.getSignatureKey(signature));
             }
         }
         return AsicContainerSession.builder()
@@ -0,0 +1,105 @@
+package ee.openeid.siga.service.signature.util;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.Container;
+import org.digidoc4j.ContainerBuilder;
+import org.digidoc4j.DataFile;
+import org.digidoc4j.Signature;
+import org.digidoc4j.SignatureBuilder;
+import org.digidoc4j.SignatureProfile;
+import org.digidoc4j.signers.PKCS12SignatureToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.digidoc4j.Container.DocumentType.ASICE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContainerUtilTest {
+    private final Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+    private final PKCS12SignatureToken signatureToken = new PKCS12SignatureToken("src/test/resources/p12/sign_ECC_from_TEST_of_ESTEID2018.p12", "1234".toCharArray());
+    private Container container;
+
+    @BeforeEach
+    void setUp() {
+        container = ContainerBuilder.aContainer(ASICE)
+                .withConfiguration(configuration)
+                .withDataFile(new DataFile("test content".getBytes(StandardCharsets.UTF_8), "test.txt", "text/plain"))
+                .build();
+    }
+
+    @Test
+    void appendedSignatureReadableFromContainer() throws IOException {
+        Signature signature = sign(container);
+
+        Container signedContainer = ContainerUtil.createContainer(ContainerUtil.appendSignature(save(container), signature.getAdESSignature()), configuration);
+
+        assertEquals(1, signedContainer.getSignatures().size());
+        assertEquals(ContainerUtil.getSignatureKey(signature), ContainerUtil.getSignatureKey(signedContainer.getSignatures().get(0)));
+        assertArrayEquals("test content".getBytes(StandardCharsets.UTF_8), signedContainer.getDataFiles().get(0).getBytes());
+    }
+
+    @Test
+    void existingEntriesCopiedUnchanged() throws IOException {
+        byte[] containerBytes = save(container);
+
+        byte[] signedContainerBytes = ContainerUtil.appendSignature(containerBytes, sign(container).getAdESSignature());
+
+        List<ZipArchiveEntry> entries = getEntries(containerBytes);
+        List<ZipArchiveEntry> signedEntries = getEntries(signedContainerBytes);
+        assertEquals(entries.size() + 1, signedEntries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(entries.get(i).getName(), signedEntries.get(i).getName());
+            assertEquals(entries.get(i).getMethod(), signedEntries.get(i).getMethod());
+            assertEquals(entries.get(i).getCompressedSize(), signedEntries.get(i).getCompressedSize());
+            assertEquals(entries.get(i).getCrc(), signedEntries.get(i).getCrc());
+        }
+        assertEquals("mimetype", signedEntries.get(0).getName());
+        assertEquals("META-INF/signatures0.xml", signedEntries.get(entries.size()).getName());
+    }
+
+    @Test
+    void appendedSignatureNamedAfterExistingSignatures() throws IOException {
+        byte[] signedContainerBytes = ContainerUtil.appendSignature(save(container), sign(container).getAdESSignature());
+        Container signedContainer = ContainerUtil.createContainer(signedContainerBytes, configuration);
+
+        byte[] twiceSignedContainerBytes = ContainerUtil.appendSignature(signedContainerBytes, sign(signedContainer).getAdESSignature());
+
+        List<String> entryNames = getEntries(twiceSignedContainerBytes).stream().map(ZipArchiveEntry::getName).toList();
+        assertTrue(entryNames.contains("META-INF/signatures0.xml"));
+        assertTrue(entryNames.contains("META-INF/signatures1.xml"));
+        assertFalse(entryNames.contains("META-INF/signatures2.xml"));
+        assertEquals(2, ContainerUtil.createContainer(twiceSignedContainerBytes, configuration).getSignatures().size());
+    }
+
+    private Signature sign(Container container) {
+        return SignatureBuilder.aSignature(container)
+                .withSignatureProfile(SignatureProfile.B_BES)
+                .withSignatureToken(signatureToken)
+                .invokeSigning();
+    }
+
+    private static byte[] save(Container container) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        container.save(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static List<ZipArchiveEntry> getEntries(byte[] container) throws IOException {
+        try (SeekableInMemoryByteChannel byteChannel = new SeekableInMemoryByteChannel(container);
+             ZipFile zipFile = new ZipFile(byteChannel)) {
+            return Collections.list(zipFile.getEntriesInPhysicalOrder());
+        }
+    }
+}